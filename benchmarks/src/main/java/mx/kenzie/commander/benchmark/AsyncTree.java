@@ -0,0 +1,31 @@
+package mx.kenzie.commander.benchmark;
+
+import mx.kenzie.commander.Commander;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A {@link Tree} whose commands run on a pool, kept apart so only the asynchronous benchmark builds it.
+ */
+@State(Scope.Benchmark)
+public class AsyncTree extends Tree {
+    
+    private ExecutorService pool;
+    
+    @Override
+    protected Commander<Sink> create() {
+        this.pool = Executors.newFixedThreadPool(2);
+        return Trees.create(routes, mix, pool);
+    }
+    
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+    
+}
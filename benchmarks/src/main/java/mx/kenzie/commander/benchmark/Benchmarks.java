@@ -0,0 +1,35 @@
+package mx.kenzie.commander.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler always on, so every result has its allocation per operation
+ * ({@code gc.alloc.rate.norm}) beside the time, and writes them all to {@code commander-benchmarks.json}.
+ * <p>
+ * The usual JMH options are accepted, e.g. {@code java -jar target/commander-benchmarks.jar Dispatch -p routes=10,1000}.
+ */
+public final class Benchmarks {
+    
+    private Benchmarks() {
+    }
+    
+    public static void main(String... args) throws CommandLineOptionException, RunnerException {
+        final CommandLineOptions parent = new CommandLineOptions(args);
+        final OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(parent);
+        if (parent.getProfilers().stream().noneMatch(profiler -> profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName())))
+            builder.addProfiler(GCProfiler.class);
+        if (!parent.getResult().hasValue()) builder.result("commander-benchmarks.json");
+        if (!parent.getResultFormat().hasValue()) builder.resultFormat(ResultFormatType.JSON);
+        final Options options = builder.build();
+        new Runner(options).run();
+    }
+    
+}
@@ -0,0 +1,66 @@
+package mx.kenzie.commander.benchmark;
+
+import mx.kenzie.commander.Commander;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches 10,000 commands at once that each block for 50ms, as if waiting on a database,
+ * and waits for them all: on a cached pool, and in virtual execution mode.
+ * On runtimes without virtual threads the second is a bounded platform pool.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingDispatchBenchmark {
+    
+    static final int COMMANDS = 10_000;
+    static final long BLOCK_MILLIS = 50;
+    
+    @Param({"cached", "virtual"})
+    public String pool;
+    
+    private final Sink sink = new Sink();
+    private ExecutorService cached;
+    private Commander<Sink> commander;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        if (pool.equals("cached")) this.cached = Executors.newCachedThreadPool();
+        this.commander = new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                final CommandImpl command = command("export");
+                if (cached != null) command.allowAsyncExecution(cached);
+                else command.allowVirtualExecution();
+                return command.arg("file", sender -> {
+                    try {
+                        Thread.sleep(BLOCK_MILLIS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        };
+    }
+    
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        if (cached != null) cached.shutdownNow();
+    }
+    
+    @Benchmark
+    public Void dispatch() {
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[COMMANDS];
+        for (int i = 0; i < COMMANDS; i++) futures[i] = commander.executeAsync(sink, "export", "file");
+        return CompletableFuture.allOf(futures).join();
+    }
+    
+}
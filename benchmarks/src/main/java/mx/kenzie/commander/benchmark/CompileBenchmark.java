@@ -0,0 +1,24 @@
+package mx.kenzie.commander.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recompiles trees of each size, which is what a plugin pays at startup and on every reload.
+ * With a hundred thousand routes each compile takes seconds, so those iterations run only a few operations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompileBenchmark {
+    
+    @Benchmark
+    public Object compile(Tree tree) {
+        tree.commander.recompile();
+        return tree.commander;
+    }
+    
+}
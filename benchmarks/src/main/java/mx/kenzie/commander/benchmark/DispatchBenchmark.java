@@ -0,0 +1,54 @@
+package mx.kenzie.commander.benchmark;
+
+import mx.kenzie.magic.collection.MagicList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs and completes commands against trees of each size, cycling through inputs that reach
+ * the first, middle and last routes and one that matches nothing.
+ * Completion is given the same routes cut off part of the way through.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    
+    @Benchmark
+    public boolean execute(Tree tree, Cursor cursor, Sink sink) {
+        return tree.commander.execute(sink, Trees.LABEL, cursor.next(tree.inputs));
+    }
+    
+    @Benchmark
+    public Void executeAsync(AsyncTree tree, Cursor cursor, Sink sink) {
+        return tree.commander.executeAsync(sink, Trees.LABEL, cursor.next(tree.inputs)).join();
+    }
+    
+    @Benchmark
+    public MagicList<String> getNextCompletions(Tree tree, Cursor cursor) {
+        return tree.commander.getNextCompletions(cursor.next(tree.partials));
+    }
+    
+    @Benchmark
+    public MagicList<String> getPossibleArguments(Tree tree, Cursor cursor) {
+        return tree.commander.getPossibleArguments(cursor.next(tree.inputs));
+    }
+    
+    /**
+     * Which input each thread uses next.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        
+        private int index;
+        
+        String[] next(String[][] inputs) {
+            return inputs[index++ & 3];
+        }
+        
+    }
+    
+}
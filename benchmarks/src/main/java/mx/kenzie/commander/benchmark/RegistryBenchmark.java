@@ -0,0 +1,68 @@
+package mx.kenzie.commander.benchmark;
+
+import mx.kenzie.commander.CommandContext;
+import mx.kenzie.commander.CommandRegistry;
+import mx.kenzie.commander.Commander;
+import mx.kenzie.magic.collection.MagicList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the owner of an input line among many commanders, through a {@link CommandRegistry}
+ * and by asking every commander in turn, cycling through a bare label, an alias, a prefixed label and a missing one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistryBenchmark {
+    
+    @Param({"100", "5000"})
+    public int commanders;
+    
+    private final CommandRegistry<Sink> registry = new CommandRegistry<>();
+    private final MagicList<Commander<Sink>> list = new MagicList<>();
+    private String[] inputs;
+    private CommandContext<Sink>[] contexts;
+    private int index;
+    
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        for (int i = 0; i < commanders; i++) {
+            final Commander<Sink> commander = create("command" + i, "alias" + i);
+            list.add(commander);
+            registry.register("plugin" + (i % 50), commander);
+        }
+        final int last = commanders - 1;
+        this.inputs = new String[]{"command0 foo", "alias" + commanders / 2 + " foo", "plugin" + (last % 50) + ":command" + last + " foo", "missing foo"};
+        this.contexts = new CommandContext[inputs.length];
+        for (int i = 0; i < inputs.length; i++) contexts[i] = CommandContext.build(null, inputs[i]);
+    }
+    
+    @Benchmark
+    public Commander<Sink> registry() {
+        return registry.resolve(inputs[index++ & 3]);
+    }
+    
+    @Benchmark
+    public Commander<Sink> linear() {
+        final CommandContext<Sink> context = contexts[index++ & 3];
+        for (Commander<Sink> commander : list) if (commander.matchesLabel(context)) return commander;
+        return null;
+    }
+    
+    private static Commander<Sink> create(String label, String alias) {
+        return new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                return command(label, alias)
+                    .arg("foo", sender -> {});
+            }
+        };
+    }
+    
+}
@@ -0,0 +1,77 @@
+package mx.kenzie.commander.benchmark;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.Argument;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs commands through the compiled trie, and through a linear scan that checks every route in turn
+ * as commanders did before the trie, cycling through the first, middle and last routes and an input that matches nothing.
+ * Both run the same action with the same values, so the difference is the cost of finding the route.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteDispatchBenchmark {
+    
+    @Param({"10", "1000", "50000"})
+    public int routes;
+    
+    private final Sink sink = new Sink();
+    private Commander<Sink> commander;
+    private Argument<?>[][] list;
+    private String[][] inputs;
+    private int index;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        this.commander = Trees.create(routes, Trees.Mix.MIXED, null);
+        final List<Argument<?>[]> routes = Trees.routes(this.routes, Trees.Mix.MIXED);
+        this.list = routes.toArray(new Argument<?>[0][]);
+        this.inputs = Trees.inputs(Trees.Mix.MIXED, this.routes);
+    }
+    
+    @Benchmark
+    public boolean trie() {
+        return commander.execute(sink, Trees.LABEL, inputs[index++ & 3]);
+    }
+    
+    @Benchmark
+    public boolean linear() {
+        final String[] input = inputs[index++ & 3];
+        Argument<?>[] trailing = null;
+        for (Argument<?>[] route : list) {
+            if (!matches(route, input)) continue;
+            if (route.length == input.length) return run(route, input);
+            if (trailing == null) trailing = route;
+        }
+        return trailing != null && run(trailing, input);
+    }
+    
+    /**
+     * Whether the route matches the start of the input, leaving any trailing words.
+     */
+    private static boolean matches(Argument<?>[] route, String[] input) {
+        if (route.length > input.length) return false;
+        for (int i = 0; i < route.length; i++) if (!route[i].matches(input[i])) return false;
+        return true;
+    }
+    
+    private boolean run(Argument<?>[] route, String[] input) {
+        int count = 0;
+        for (Argument<?> argument : route) if (!argument.isLiteral()) count++;
+        final Object[] values = new Object[count];
+        count = 0;
+        for (int i = 0; i < route.length; i++)
+            if (!route[i].isLiteral()) values[count++] = route[i].serialise(input[i]);
+        sink.accept(values);
+        return true;
+    }
+    
+}
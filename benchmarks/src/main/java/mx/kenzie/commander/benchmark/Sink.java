@@ -0,0 +1,20 @@
+package mx.kenzie.commander.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The command sender of the benchmarks, which keeps the values of the last command
+ * so that the work done for them cannot be optimised away.
+ * Each benchmark thread has its own.
+ */
+@State(Scope.Thread)
+public class Sink {
+    
+    public Object last;
+    
+    public void accept(Object[] inputs) {
+        this.last = inputs;
+    }
+    
+}
@@ -0,0 +1,51 @@
+package mx.kenzie.commander.benchmark;
+
+import mx.kenzie.commander.Commander;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs commands through the shared dispatch code, and through a commander's own from
+ * {@link Commander.CommandImpl#specialise()}, over the same tree of literals and mixed inputs,
+ * cycling through the first, middle and last routes and an input that matches nothing.
+ * Both commanders are used in each run, so the shared code sees more than one tree, as it would on a server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpecialisedDispatchBenchmark {
+    
+    @Param({"10", "1000", "50000"})
+    public int routes;
+    
+    private final Sink sink = new Sink();
+    private Commander<Sink> shared, specialised;
+    private String[][] inputs;
+    private int index;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        this.shared = Trees.create(routes, Trees.Mix.MIXED, null);
+        this.specialised = Trees.create(routes, Trees.Mix.MIXED, null, true);
+        this.inputs = Trees.inputs(Trees.Mix.MIXED, routes);
+        for (int i = 0; i < 20_000; i++) {
+            shared.execute(sink, Trees.LABEL, inputs[i & 3]);
+            specialised.execute(sink, Trees.LABEL, inputs[i & 3]);
+        }
+    }
+    
+    @Benchmark
+    public boolean shared() {
+        return shared.execute(sink, Trees.LABEL, inputs[index++ & 3]);
+    }
+    
+    @Benchmark
+    public boolean specialised() {
+        return specialised.execute(sink, Trees.LABEL, inputs[index++ & 3]);
+    }
+    
+}
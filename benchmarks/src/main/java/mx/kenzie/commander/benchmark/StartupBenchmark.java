@@ -0,0 +1,66 @@
+package mx.kenzie.commander.benchmark;
+
+import mx.kenzie.commander.CommandRegistry;
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.Argument;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds and registers 2,000 commanders of 40 routes each, eagerly and lazily.
+ * The second benchmark also runs a command on one commander in twenty,
+ * which is when the lazy ones pay for their compilation.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    
+    static final int COMMANDERS = 2_000, ROUTES = 40;
+    
+    @Param({"false", "true"})
+    public boolean lazy;
+    
+    @Benchmark
+    public CommandRegistry<Sink> startup() {
+        final CommandRegistry<Sink> registry = new CommandRegistry<>();
+        for (int i = 0; i < COMMANDERS; i++) registry.register(this.create("cmd" + i));
+        return registry;
+    }
+    
+    @Benchmark
+    public CommandRegistry<Sink> firstUse() {
+        final CommandRegistry<Sink> registry = this.startup();
+        final Sink sink = new Sink();
+        for (int i = 0; i < COMMANDERS; i += 20) registry.execute(sink, "cmd" + i + " route7 5");
+        return registry;
+    }
+    
+    private Commander<Sink> create(String label) {
+        if (lazy) return new Commander<>(label) {
+            @Override
+            protected CommandImpl create() {
+                return routes(this, command(label));
+            }
+        };
+        return new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                return routes(this, command(label));
+            }
+        };
+    }
+    
+    private static Commander<Sink>.CommandImpl routes(Commander<Sink> commander, Commander<Sink>.CommandImpl command) {
+        for (int i = 0; i < ROUTES; i++) {
+            command.arg("route" + i, commander.arg((sender, inputs) -> sender.accept(inputs), Argument.INTEGER));
+            command.arg(sender -> {}, "route" + i, "literal" + i);
+        }
+        return command;
+    }
+    
+}
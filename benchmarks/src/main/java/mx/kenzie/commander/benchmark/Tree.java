@@ -0,0 +1,32 @@
+package mx.kenzie.commander.benchmark;
+
+import mx.kenzie.commander.Commander;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * A compiled tree of each size and mix, with the inputs the benchmarks cycle through.
+ */
+@State(Scope.Benchmark)
+public class Tree {
+    
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int routes;
+    
+    @Param({"LITERAL", "MIXED", "TYPED"})
+    public Trees.Mix mix;
+    
+    public Commander<Sink> commander;
+    public String[][] inputs, partials;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        this.commander = this.create();
+        this.inputs = Trees.inputs(mix, routes);
+        this.partials = Trees.partials(routes);
+    }
+    
+    protected Commander<Sink> create() {
+        return Trees.create(routes, mix, null);
+    }
+    
+}
@@ -0,0 +1,141 @@
+package mx.kenzie.commander.benchmark;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.ArgLiteral;
+import mx.kenzie.commander.arg.Argument;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Synthetic command trees for the benchmarks.
+ * <p>
+ * Routes are spread over groups of a hundred, {@code bench group<n> item<m> ...}, so the trie has the
+ * width and depth of a large plugin's commands rather than one very wide node.
+ * What follows the two literals depends on the {@link Mix}.
+ */
+public final class Trees {
+    
+    public static final String LABEL = "bench";
+    public static final int GROUP = 100;
+    
+    private static final Argument<?>[] TYPES = {Argument.INTEGER, Argument.STRING, Argument.NUMBER, Argument.BOOLEAN, Argument.LONG};
+    private static final String[] VALUES = {"42", "word", "4.5", "true", "9000000000"};
+    
+    private Trees() {
+    }
+    
+    /**
+     * The arguments that follow the command label and the two literals.
+     */
+    public enum Mix {
+        /**
+         * Only literals.
+         */
+        LITERAL,
+        /**
+         * Every other route ends in one input, and each group has a route taking a number straight away.
+         */
+        MIXED,
+        /**
+         * Every route ends in two inputs.
+         */
+        TYPED;
+        
+        int inputs(int route) {
+            return switch (this) {
+                case LITERAL -> 0;
+                case MIXED -> route % 2;
+                case TYPED -> 2;
+            };
+        }
+    }
+    
+    /**
+     * Builds a commander with this many routes, compiled straight away.
+     *
+     * @param routes How many routes to register
+     * @param mix    What the routes are made of
+     * @param pool   The pool for asynchronous execution, or null to run commands on the caller
+     * @return The commander
+     */
+    public static Commander<Sink> create(int routes, Mix mix, @Nullable ExecutorService pool) {
+        return create(routes, mix, pool, false);
+    }
+    
+    /**
+     * @param specialise Whether the commander compiles its routes into code of its own
+     */
+    public static Commander<Sink> create(int routes, Mix mix, @Nullable ExecutorService pool, boolean specialise) {
+        return new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                final CommandImpl command = command(LABEL);
+                if (pool != null) command.allowAsyncExecution(pool);
+                if (specialise) command.specialise();
+                for (Argument<?>[] route : routes(routes, mix)) command.route(null, Sink::accept, route);
+                return command;
+            }
+        };
+    }
+    
+    /**
+     * The arguments of every route, in the order they are registered.
+     */
+    public static List<Argument<?>[]> routes(int routes, Mix mix) {
+        final List<Argument<?>[]> list = new ArrayList<>(routes + routes / GROUP + 1);
+        for (int i = 0; i < routes; i++) {
+            list.add(route(mix, i));
+            if (mix == Mix.MIXED && i % GROUP == 0)
+                list.add(new Argument<?>[]{new ArgLiteral(group(i)), Argument.INTEGER});
+        }
+        return list;
+    }
+    
+    /**
+     * The input that runs one route, without the command label.
+     */
+    public static String[] input(Mix mix, int route) {
+        final int inputs = mix.inputs(route);
+        final String[] input = new String[2 + inputs];
+        input[0] = group(route);
+        input[1] = item(route);
+        for (int i = 0; i < inputs; i++) input[2 + i] = VALUES[(route + i) % VALUES.length];
+        return input;
+    }
+    
+    /**
+     * Inputs that reach the first, middle and last routes, and one that matches nothing.
+     */
+    public static String[][] inputs(Mix mix, int routes) {
+        return new String[][]{input(mix, 0), input(mix, routes / 2), input(mix, routes - 1), {"missing", "input"}};
+    }
+    
+    /**
+     * Partial inputs to complete, ending part of the way through the second literal.
+     */
+    public static String[][] partials(int routes) {
+        return new String[][]{{"group0", "it"}, {group(routes / 2), "item"}, {group(routes - 1), ""}, {"gr"}};
+    }
+    
+    private static Argument<?>[] route(Mix mix, int route) {
+        final int inputs = mix.inputs(route);
+        final Argument<?>[] arguments = new Argument<?>[2 + inputs];
+        arguments[0] = new ArgLiteral(group(route));
+        arguments[1] = new ArgLiteral(item(route));
+        // the typed arguments are shared, so routes with the same prefix share trie nodes
+        for (int i = 0; i < inputs; i++) arguments[2 + i] = TYPES[(route + i) % TYPES.length];
+        return arguments;
+    }
+    
+    private static String group(int route) {
+        return "group" + (route / GROUP);
+    }
+    
+    private static String item(int route) {
+        return "item" + (route % GROUP);
+    }
+    
+}
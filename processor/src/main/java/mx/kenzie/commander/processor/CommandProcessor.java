@@ -0,0 +1,364 @@
+package mx.kenzie.commander.processor;
+
+import mx.kenzie.commander.annotation.Command;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a {@link mx.kenzie.commander.Commander} for every command label used by {@link Command} methods.
+ * <p>
+ * Routes are parsed and checked against their methods at build time, so a mistake in a route is a compile error.
+ * The generated commander registers its routes with pre-built arguments, which are shared between routes wherever
+ * they share a prefix, and calls the methods through one switch rather than a lambda or reflection per route.
+ * Each value is read with the getter for its type, so an {@code int} or {@code double} input is never boxed.
+ * <p>
+ * The methods {@code warp set <name:string>} and {@code warp list} on {@code WarpCommands} become
+ * {@code WarpCommands_Warp}, which takes a {@code WarpCommands} instance if any of the methods are not static.
+ */
+@SupportedAnnotationTypes("mx.kenzie.commander.annotation.Command")
+public class CommandProcessor extends AbstractProcessor {
+    
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+    
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment environment) {
+        final Map<TypeElement, Map<String, Group>> owners = new LinkedHashMap<>();
+        for (Element element : environment.getElementsAnnotatedWith(Command.class)) {
+            if (element.getKind() != ElementKind.METHOD) continue;
+            final Route route = this.read((ExecutableElement) element);
+            if (route == null) continue;
+            owners.computeIfAbsent((TypeElement) element.getEnclosingElement(), owner -> new LinkedHashMap<>())
+                .computeIfAbsent(route.label, Group::new)
+                .routes.add(route);
+        }
+        for (Map.Entry<TypeElement, Map<String, Group>> entry : owners.entrySet()) {
+            for (Group group : entry.getValue().values()) {
+                if (this.check(entry.getKey(), group)) this.write(entry.getKey(), group);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Parses one method's route and matches its parameters to the input arguments.
+     */
+    private Route read(ExecutableElement method) {
+        final Command command = method.getAnnotation(Command.class);
+        final String[] parts = command.value().trim().split("\\s+");
+        if (parts[0].isEmpty() || !parts[0].matches("[\\w-]+(\\|[\\w-]+)*"))
+            return this.error(method, "The route must start with a command label: '" + command.value() + "'");
+        final String[] labels = parts[0].toLowerCase(Locale.ROOT).split("\\|");
+        final List<Token> tokens = new ArrayList<>();
+        for (int i = 1; i < parts.length; i++) {
+            final String part = parts[i];
+            if (part.startsWith("<")) {
+                final int colon = part.indexOf(':');
+                if (!part.endsWith(">") || colon < 2)
+                    return this.error(method, "Input arguments are written <name:type>, not '" + part + "'");
+                final String name = part.substring(1, colon);
+                final Kind kind = Kind.of(part.substring(colon + 1, part.length() - 1));
+                if (kind == null)
+                    return this.error(method, "Unknown argument type in '" + part + "', expected one of " + Kind.names());
+                if (kind == Kind.REST && i < parts.length - 1)
+                    return this.error(method, "'" + part + "' takes the rest of the input, so it must come last");
+                tokens.add(new Token(null, kind, name));
+            } else {
+                if (!part.matches("[^<>\\[\\]|]+(\\|[^<>\\[\\]|]+)*"))
+                    return this.error(method, "Not a valid literal: '" + part + "'");
+                tokens.add(new Token(part.split("\\|"), null, part));
+            }
+        }
+        if (method.getModifiers().contains(Modifier.PRIVATE))
+            return this.error(method, "A command method cannot be private");
+        final List<? extends VariableElement> parameters = method.getParameters();
+        if (!parameters.isEmpty() && parameters.get(0).asType().getKind() != TypeKind.DECLARED)
+            return this.error(parameters.get(0), "The first parameter is the sender, which must be a class or interface type");
+        final int inputs = (int) tokens.stream().filter(token -> token.kind != null).count();
+        if (parameters.size() != inputs + 1)
+            return this.error(method, "Expected the sender and " + inputs + " argument parameter(s), found " + parameters.size() + " parameter(s)");
+        final Types types = processingEnv.getTypeUtils();
+        int index = 1;
+        for (Token token : tokens) {
+            if (token.kind == null) continue;
+            final VariableElement parameter = parameters.get(index++);
+            final TypeMirror boxed = processingEnv.getElementUtils().getTypeElement(token.kind.type).asType();
+            if (!types.isAssignable(boxed, parameter.asType()))
+                return this.error(parameter, "<" + token.name + ":" + token.kind.name + "> gives a " + token.kind.type + ", which cannot be passed as " + parameter.asType());
+        }
+        for (TypeMirror thrown : method.getThrownTypes()) {
+            if (!this.isUnchecked(thrown))
+                return this.error(method, "A command method cannot throw checked exceptions, such as " + thrown);
+        }
+        final String description = command.description().isEmpty() ? null : command.description();
+        return new Route(method, labels[0], Arrays.copyOfRange(labels, 1, labels.length), tokens, description);
+    }
+    
+    private boolean isUnchecked(TypeMirror thrown) {
+        final Types types = processingEnv.getTypeUtils();
+        final TypeMirror runtime = processingEnv.getElementUtils().getTypeElement("java.lang.RuntimeException").asType();
+        final TypeMirror error = processingEnv.getElementUtils().getTypeElement("java.lang.Error").asType();
+        return types.isSubtype(thrown, runtime) || types.isSubtype(thrown, error);
+    }
+    
+    /**
+     * Checks that the routes of one command agree with each other, and that the generated class can reach them.
+     */
+    private boolean check(TypeElement owner, Group group) {
+        boolean valid = true;
+        for (Element element = owner; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                this.error(owner, "Commands cannot be generated for a private class");
+                return false;
+            }
+            if (element.getEnclosingElement() instanceof TypeElement && !element.getModifiers().contains(Modifier.STATIC) && element.getKind() == ElementKind.CLASS) {
+                this.error(owner, "Commands cannot be generated for an inner class; make it static");
+                return false;
+            }
+        }
+        final Types types = processingEnv.getTypeUtils();
+        final TypeMirror sender = group.routes.get(0).sender();
+        final Map<String, Route> seen = new HashMap<>();
+        for (Route route : group.routes) {
+            if (!types.isSameType(types.erasure(route.sender()), types.erasure(sender))) {
+                this.error(route.method, "Every route of '" + group.label + "' must take the same sender type, " + sender);
+                valid = false;
+            }
+            final Route previous = seen.putIfAbsent(route.key(), route);
+            if (previous != null) {
+                this.error(route.method, "This route is the same as " + previous.method.getSimpleName() + "'s");
+                valid = false;
+            }
+            for (String alias : route.aliases) if (!group.aliases.contains(alias)) group.aliases.add(alias);
+        }
+        return valid;
+    }
+    
+    private void write(TypeElement owner, Group group) {
+        final String name = this.flatName(owner) + "_" + this.identifier(group.label);
+        final String pack = processingEnv.getElementUtils().getPackageOf(owner).getQualifiedName().toString();
+        final String sender = processingEnv.getTypeUtils().erasure(group.routes.get(0).sender()).toString();
+        final String target = owner.getQualifiedName().toString();
+        final boolean instance = group.routes.stream().anyMatch(route -> !route.method.getModifiers().contains(Modifier.STATIC));
+        final StringBuilder fields = new StringBuilder(), routes = new StringBuilder(), cases = new StringBuilder();
+        final Map<String, String> arguments = new HashMap<>(); // one argument for each distinct prefix, so routes share nodes
+        final Set<String> imports = new TreeSet<>(List.of("Commander", "arg.Argument"));
+        for (int i = 0; i < group.routes.size(); i++) {
+            final Route route = group.routes.get(i);
+            final StringBuilder prefix = new StringBuilder();
+            final List<String> used = new ArrayList<>();
+            for (Token token : route.tokens) {
+                prefix.append(token.key()).append(' ');
+                String field = arguments.get(prefix.toString());
+                if (field == null) {
+                    arguments.put(prefix.toString(), field = "ARGUMENT_" + arguments.size());
+                    fields.append("    private static final Argument<?> ").append(field).append(" = ").append(token.create()).append(";\n");
+                    imports.add("arg." + token.type());
+                }
+                used.add(field);
+            }
+            final String description = route.description == null ? "null" : literal(route.description);
+            if (used.isEmpty())
+                routes.append("\n            .defaultAction(sender -> this.dispatch(").append(i).append(", sender, null))");
+            else routes.append("\n            .route(").append(description).append(", new Route(").append(i).append("), ")
+                .append(String.join(", ", used)).append(")");
+            cases.append("            case ").append(i).append(" -> ")
+                .append(route.method.getModifiers().contains(Modifier.STATIC) ? target : "target")
+                .append('.').append(route.method.getSimpleName()).append("(sender");
+            int input = 0;
+            for (Token token : route.tokens) {
+                if (token.kind == null) continue;
+                cases.append(", ").append(token.kind.read(input++));
+            }
+            cases.append(");\n");
+        }
+        final StringBuilder labels = new StringBuilder(literal(group.label));
+        for (String alias : group.aliases) labels.append(", ").append(literal(alias));
+        final StringBuilder source = new StringBuilder();
+        if (!pack.isEmpty()) source.append("package ").append(pack).append(";\n\n");
+        for (String type : imports) source.append("import mx.kenzie.commander.").append(type).append(";\n");
+        source.append("\n/**\n * The {@code ").append(group.label).append("} command, generated from {@link ").append(target).append("}.\n */\n")
+            .append("@javax.annotation.processing.Generated(\"").append(CommandProcessor.class.getName()).append("\")\n")
+            .append("public final class ").append(name).append(" extends Commander<").append(sender).append("> {\n\n")
+            .append(fields).append('\n');
+        if (instance) source.append("    private final ").append(target).append(" target;\n\n")
+            .append("    public ").append(name).append("(").append(target).append(" target) {\n")
+            .append("        super(").append(labels).append(");\n")
+            .append("        this.target = target;\n")
+            .append("    }\n\n");
+        else source.append("    public ").append(name).append("() {\n")
+            .append("        super(").append(labels).append(");\n")
+            .append("    }\n\n");
+        source.append("    @Override\n")
+            .append("    protected CommandImpl create() {\n")
+            .append("        return command(").append(labels).append(")").append(routes).append(";\n")
+            .append("    }\n\n")
+            .append("    private void dispatch(int route, ").append(sender).append(" sender, Inputs inputs) {\n")
+            .append("        switch (route) {\n")
+            .append(cases)
+            .append("            default -> throw new IllegalStateException(\"Unknown route: \" + route);\n")
+            .append("        }\n")
+            .append("    }\n\n")
+            .append("    private final class Route implements CommandInputAction<").append(sender).append("> {\n")
+            .append("        private final int index;\n\n")
+            .append("        private Route(int index) {\n")
+            .append("            this.index = index;\n")
+            .append("        }\n\n")
+            .append("        @Override\n")
+            .append("        public void accept(").append(sender).append(" sender, Inputs inputs) {\n")
+            .append("            dispatch(index, sender, inputs);\n")
+            .append("        }\n")
+            .append("    }\n\n")
+            .append("}\n");
+        final String qualified = pack.isEmpty() ? name : pack + "." + name;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualified, owner).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException ex) {
+            this.error(owner, "Unable to write " + qualified + ": " + ex.getMessage());
+        }
+    }
+    
+    private String flatName(TypeElement owner) {
+        final String name = owner.getSimpleName().toString();
+        if (owner.getEnclosingElement() instanceof TypeElement outer) return this.flatName(outer) + "_" + name;
+        return name;
+    }
+    
+    private String identifier(String label) {
+        final StringBuilder builder = new StringBuilder();
+        for (char c : label.toCharArray()) builder.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        builder.setCharAt(0, Character.toUpperCase(builder.charAt(0)));
+        return builder.toString();
+    }
+    
+    static String literal(String string) {
+        final StringBuilder builder = new StringBuilder("\"");
+        for (char c : string.toCharArray()) {
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) builder.append(String.format("\\u%04x", (int) c));
+                    else builder.append(c);
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+    
+    private <Type> Type error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        return null;
+    }
+    
+    /**
+     * The input argument types a route can use, the built-in argument each one becomes,
+     * and how its value is read from the route's inputs.
+     */
+    enum Kind {
+        STRING("string", "ArgString", "java.lang.String", null),
+        REST("string...", "ArgStringFinal", "java.lang.String", null),
+        INT("int", "ArgInt", "java.lang.Integer", "getInt"),
+        LONG("long", "ArgLong", "java.lang.Long", "getLong"),
+        DOUBLE("double", "ArgDouble", "java.lang.Double", "getDouble"),
+        BOOLEAN("boolean", "ArgBool", "java.lang.Boolean", "getBoolean");
+        
+        final String name, argument, type, getter;
+        
+        Kind(String name, String argument, String type, String getter) {
+            this.name = name;
+            this.argument = argument;
+            this.type = type;
+            this.getter = getter;
+        }
+        
+        /**
+         * The expression for the value at this index, unboxed when it has a primitive getter.
+         */
+        String read(int index) {
+            if (getter == null) return "(" + type + ") inputs.get(" + index + ")";
+            return "inputs." + getter + "(" + index + ")";
+        }
+        
+        static Kind of(String name) {
+            for (Kind kind : values()) if (kind.name.equals(name)) return kind;
+            return null;
+        }
+        
+        static String names() {
+            final StringJoiner joiner = new StringJoiner(", ");
+            for (Kind kind : values()) joiner.add(kind.name);
+            return joiner.toString();
+        }
+    }
+    
+    /**
+     * One argument of a route: a literal with its alternatives, or a named input.
+     */
+    record Token(String[] words, Kind kind, String name) {
+        
+        /**
+         * What two routes must agree on for this argument to be shared between them.
+         */
+        String key() {
+            if (kind != null) return "<" + kind.name + ":" + name + ">";
+            final String[] folded = new String[words.length];
+            for (int i = 0; i < words.length; i++) folded[i] = words[i].toLowerCase(Locale.ROOT);
+            return String.join("|", folded);
+        }
+        
+        String type() {
+            if (kind != null) return kind.argument;
+            return words.length == 1 ? "ArgLiteral" : "ArgLiteralPlural";
+        }
+        
+        String create() {
+            if (kind != null) return "new " + kind.argument + "().setLabel(" + literal(name) + ")";
+            if (words.length == 1) return "new ArgLiteral(" + literal(words[0]) + ")";
+            final StringJoiner joiner = new StringJoiner(", ", "new ArgLiteralPlural(new String[]{", "})");
+            for (String word : words) joiner.add(literal(word));
+            return joiner.toString();
+        }
+    }
+    
+    record Route(ExecutableElement method, String label, String[] aliases, List<Token> tokens, String description) {
+        
+        TypeMirror sender() {
+            return method.getParameters().get(0).asType();
+        }
+        
+        /**
+         * Routes with the same key would accept exactly the same input.
+         */
+        String key() {
+            final StringJoiner joiner = new StringJoiner(" ");
+            for (Token token : tokens) joiner.add(token.kind != null ? "<" + token.kind.name + ">" : token.key());
+            return joiner.toString();
+        }
+    }
+    
+    static final class Group {
+        final String label;
+        final List<String> aliases = new ArrayList<>();
+        final List<Route> routes = new ArrayList<>();
+        
+        Group(String label) {
+            this.label = label;
+        }
+    }
+    
+}
@@ -0,0 +1,126 @@
+package mx.kenzie.commander.processor;
+
+import mx.kenzie.commander.Commander;
+import org.junit.Test;
+
+import javax.tools.*;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class CommandProcessorTest {
+    
+    private static final String WARPS = """
+        package example;
+        
+        import mx.kenzie.commander.annotation.Command;
+        
+        public class Warps {
+            
+            @Command(value = "warp|w set <name:string>", description = "Sets a warp.")
+            public void set(StringBuilder sender, String name) {
+                sender.append("set ").append(name);
+            }
+            
+            @Command("warp set <name:string> <radius:int>")
+            public void set(StringBuilder sender, String name, int radius) {
+                sender.append("set ").append(name).append(" within ").append(radius);
+            }
+            
+            @Command("warp list|ls")
+            public static void list(StringBuilder sender) {
+                sender.append("list");
+            }
+            
+            @Command("warp scale <factor:double> <count:long> <loud:boolean>")
+            public static void scale(StringBuilder sender, double factor, Long count, boolean loud) {
+                sender.append(factor * count).append(loud ? "!" : "");
+            }
+            
+            @Command("warp say <message:string...>")
+            void say(StringBuilder sender, Object message) {
+                sender.append(message);
+            }
+            
+        }
+        """;
+        
+    @Test
+    @SuppressWarnings("unchecked")
+    public void generatesCommander() throws Exception {
+        final Path directory = Files.createTempDirectory("commander");
+        final DiagnosticCollector<JavaFileObject> diagnostics = compile(directory, "example/Warps.java", WARPS);
+        assert diagnostics.getDiagnostics().stream().noneMatch(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR) : diagnostics.getDiagnostics();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.resolve("out").toUri().toURL()}, CommandProcessorTest.class.getClassLoader())) {
+            final Class<?> warps = loader.loadClass("example.Warps");
+            final Class<?> generated = loader.loadClass("example.Warps_Warp");
+            final Commander<StringBuilder> commander = (Commander<StringBuilder>) generated.getConstructor(warps)
+                .newInstance(warps.getConstructor().newInstance());
+            assert commander.getCommand().equals("warp");
+            assert commander.getAliases().contains("w");
+            assert run(commander, "set", "home").equals("set home");
+            assert run(commander, "set", "home", "12").equals("set home within 12");
+            assert run(commander, "LS").equals("list");
+            assert run(commander, "say", "hello", "there").equals("hello there");
+            assert run(commander, "scale", "1.5", "-4", "true").equals("-6.0!");
+            assert commander.getPatternDescriptions().get("set <name>").equals("Sets a warp.");
+        }
+    }
+    
+    @Test
+    public void rejectsInvalidRoutes() throws Exception {
+        final Path directory = Files.createTempDirectory("commander");
+        final DiagnosticCollector<JavaFileObject> diagnostics = compile(directory, "example/Broken.java", """
+            package example;
+            
+            import mx.kenzie.commander.annotation.Command;
+            
+            public class Broken {
+                
+                @Command("broken <count:int>")
+                public void count(StringBuilder sender, String count) {
+                }
+                
+                @Command("broken <value:float>")
+                public void value(StringBuilder sender, float value) {
+                }
+                
+            }
+            """);
+        final List<String> errors = diagnostics.getDiagnostics().stream()
+            .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+            .map(diagnostic -> diagnostic.getMessage(null))
+            .toList();
+        assert errors.size() == 2 : errors;
+        assert errors.get(0).contains("cannot be passed as java.lang.String");
+        assert errors.get(1).contains("Unknown argument type");
+        assert !Files.exists(directory.resolve("out/example/Broken_Broken.class"));
+    }
+    
+    private static String run(Commander<StringBuilder> commander, String... arguments) {
+        final StringBuilder sender = new StringBuilder();
+        commander.execute(sender, commander.getCommand(), arguments);
+        return sender.toString();
+    }
+    
+    private static DiagnosticCollector<JavaFileObject> compile(Path directory, String name, String source) throws Exception {
+        final Path file = directory.resolve("src").resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+        Files.createDirectories(directory.resolve("out"));
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager manager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, manager, diagnostics,
+                List.of("-d", directory.resolve("out").toString(), "-s", directory.resolve("out").toString(),
+                    "-classpath", System.getProperty("java.class.path"), "-implicit:class"),
+                null, manager.getJavaFileObjects(file.toFile()));
+            task.setProcessors(List.of(new CommandProcessor()));
+            task.call();
+        }
+        return diagnostics;
+    }
+    
+}
@@ -0,0 +1,367 @@
+package mx.kenzie.commander;
+
+import mx.kenzie.commander.arg.ArgLiteral;
+import mx.kenzie.commander.arg.ArgLiteralPlural;
+import mx.kenzie.commander.arg.Argument;
+import mx.kenzie.commander.exception.CommandRuntimeError;
+import mx.kenzie.magic.collection.MagicList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * A single node in the compiled argument trie.
+ * <p>
+ * Routes sharing a prefix share nodes, so resolving an input only visits the
+ * branches that can actually match it. Plain literal children are found by a
+ * case-folded hash lookup, everything else is tried in registration order.
+ *
+ * @param <S> The command sender type
+ */
+class ArgumentNode<S> {
+    
+    /**
+     * Whether each argument class scans its own input. A class counts only if its scanner is declared
+     * at or below its pattern, so a subclass of a built-in argument that only overrides
+     * {@link Argument#getPattern()} is matched by that pattern rather than the inherited scanner.
+     */
+    private static final ClassValue<Boolean> SCANNED = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                final Class<?> scanner = type.getMethod("scan", String.class, int.class, int.class).getDeclaringClass();
+                final Class<?> pattern = type.getMethod("getPattern").getDeclaringClass();
+                return scanner != Argument.class && pattern.isAssignableFrom(scanner);
+            } catch (NoSuchMethodException ex) {
+                return false;
+            }
+        }
+    };
+    
+    final @Nullable Argument<?> argument;
+    final @Nullable Pattern pattern;
+    final String @Nullable [] keys;
+    final LiteralIndex<MagicList<ArgumentNode<S>>> literals = new LiteralIndex<>();
+    final MagicList<ArgumentNode<S>> typed = new MagicList<>();
+    final MagicList<ArgumentNode<S>> children = new MagicList<>();
+    Commander.ArgumentEntry entry;
+    Commander.CommandAction<S> action;
+    ParseResult.Invoker<S> invoker;
+    int[] slots;
+    /**
+     * The commander's own code for walking this trie and running its routes, on the root and on each route's node,
+     * if the commander is {@link Specialiser specialised}.
+     */
+    Specialiser.@Nullable Routes routes;
+    int order = Integer.MAX_VALUE;
+    int minimum = Integer.MAX_VALUE;
+    int height;
+    
+    ArgumentNode(@Nullable Argument<?> argument) {
+        this(argument, argument != null && isHashed(argument) ? keys(argument) : null);
+    }
+    
+    private ArgumentNode(@Nullable Argument<?> argument, String @Nullable [] keys) {
+        this.argument = argument;
+        this.pattern = argument != null && !isScanned(argument) ? argument.getPattern() : null;
+        this.keys = keys;
+    }
+    
+    private static boolean isScanned(Argument<?> argument) {
+        return SCANNED.get(argument.getClass());
+    }
+    
+    boolean scan(String source, int start, int end) {
+        if (pattern != null) return pattern.matcher(source).region(start, end).matches();
+        return argument.scan(source, start, end);
+    }
+    
+    static boolean isHashed(Argument<?> argument) {
+        return argument.getClass() == ArgLiteral.class || argument.getClass() == ArgLiteralPlural.class;
+    }
+    
+    /**
+     * @return The case-folded names a hashed literal is indexed by
+     */
+    static String[] keys(Argument<?> argument) {
+        if (!(argument instanceof ArgLiteralPlural plural)) return new String[]{LiteralIndex.fold(argument.getName())};
+        final String[] keys = new String[plural.aliases.size()];
+        for (int i = 0; i < keys.length; i++) keys[i] = LiteralIndex.fold(plural.aliases.get(i));
+        return keys;
+    }
+    
+    /**
+     * Whether a new argument can share an existing child, given the child's argument and keys.
+     * Hashed literals share by class and names; anything else only with itself.
+     */
+    static boolean shares(Argument<?> child, String @Nullable [] keys, Argument<?> argument, String @Nullable [] with) {
+        if (child == argument) return true;
+        if (keys == null || with == null || child.getClass() != argument.getClass()) return false;
+        return Arrays.equals(keys, with);
+    }
+    
+    void insert(Commander.ArgumentEntry entry, Commander.CommandAction<S> action, int order) {
+        ArgumentNode<S> node = this;
+        node.minimum = Math.min(node.minimum, order);
+        node.height = Math.max(node.height, entry.size());
+        for (Argument<?> argument : entry) {
+            node = node.child(argument);
+            node.minimum = Math.min(node.minimum, order);
+        }
+        if (node.order <= order) return; // the first registration of a route wins
+        node.order = order;
+        node.entry = entry;
+        node.action = action;
+        node.slots = slots(entry);
+        node.invoker = ParseResult.Invoker.of(action, node.slots);
+    }
+    
+    /**
+     * @return The position in the route of each non-literal argument, in order
+     */
+    private static int[] slots(Commander.ArgumentEntry entry) {
+        int count = 0;
+        for (Argument<?> argument : entry) if (!argument.isLiteral()) count++;
+        final int[] slots = new int[count];
+        count = 0;
+        for (int i = 0; i < entry.size(); i++) if (!entry.get(i).isLiteral()) slots[count++] = i;
+        return slots;
+    }
+    
+    /**
+     * Finds the child an argument shares, through the literal index for hashed literals,
+     * so building the trie does not compare each new argument with all of its siblings.
+     */
+    private ArgumentNode<S> child(Argument<?> argument) {
+        final String[] keys = isHashed(argument) ? keys(argument) : null;
+        final MagicList<ArgumentNode<S>> candidates = keys != null ? literals.get(keys[0]) : typed;
+        if (candidates != null) for (ArgumentNode<S> child : candidates) {
+            if (shares(child.argument, child.keys, argument, keys)) return child;
+        }
+        final ArgumentNode<S> child = new ArgumentNode<>(argument, keys);
+        children.add(child);
+        if (keys != null) {
+            for (String key : keys) {
+                MagicList<ArgumentNode<S>> bucket = literals.get(key);
+                if (bucket == null) literals.put(key, bucket = new MagicList<>());
+                bucket.add(child);
+            }
+        } else typed.add(child);
+        return child;
+    }
+    
+    boolean isTerminal() {
+        return entry != null;
+    }
+    
+    /**
+     * Parses the input in a single pass, preferring the earliest registered route that
+     * consumes the whole input, then the earliest one that leaves trailing input.
+     * Each argument on the way is matched once, in place, and the boundaries of the
+     * chosen route are kept so its values never need re-reading.
+     */
+    @Nullable ParseResult<S> parse(@NotNull String input) {
+        return parse(new Tokenizer(input));
+    }
+    
+    @Nullable ParseResult<S> parse(@NotNull Tokenizer tokens) {
+        return new Search<S>(height, routes).parse(this, tokens);
+    }
+    
+    /**
+     * A parser for many inputs in a row, which shares one tokenizer and one set of search buffers.
+     * It is not thread-safe, but the results it hands out are independent of it.
+     */
+    Parser<S> parser() {
+        return new Parser<>(this);
+    }
+    
+    static final class Parser<S> {
+        private final ArgumentNode<S> root;
+        private final Tokenizer tokens = new Tokenizer("");
+        private final Search<S> search;
+        private boolean busy;
+        
+        private Parser(ArgumentNode<S> root) {
+            this.root = root;
+            this.search = new Search<>(root.height, root.routes);
+        }
+        
+        /**
+         * A custom argument that dispatches a command while it is being matched gets a parser of its own.
+         */
+        @Nullable ParseResult<S> parse(@NotNull String input) {
+            if (busy) return root.parse(input);
+            busy = true;
+            try {
+                return search.parse(root, tokens.reset(input));
+            } finally {
+                busy = false;
+            }
+        }
+    }
+    
+    /**
+     * The state of one parse. The boundaries of the best routes found so far are copied into
+     * buffers of their own, so only the route finally chosen allocates a result.
+     * <p>
+     * Each step of the walk is a method of its own, so a {@link Specialiser specialised} commander's
+     * code takes the same steps as {@link #walk(ArgumentNode, int, int)} does.
+     */
+    static final class Search<S> {
+        final int[] bounds, exact, trailing;
+        final Specialiser.@Nullable Routes routes;
+        Tokenizer tokens;
+        String input;
+        ArgumentNode<S> exactNode, trailingNode;
+        int exactDepth, trailingDepth;
+        int next;
+        boolean pure;
+        
+        Search(int height, Specialiser.@Nullable Routes routes) {
+            this.bounds = new int[height << 1];
+            this.exact = new int[height << 1];
+            this.trailing = new int[height << 1];
+            this.routes = routes;
+        }
+        
+        ParseResult<S> parse(ArgumentNode<S> root, Tokenizer tokens) {
+            this.tokens = tokens;
+            this.input = tokens.source;
+            this.exactNode = this.trailingNode = null;
+            this.pure = true;
+            if (routes == null) this.walk(root, 0, 0);
+            else this.walk(routes);
+            final ParseResult<S> result;
+            if (exactNode != null)
+                result = new ParseResult<>(input, exactNode, Arrays.copyOf(exact, exactDepth << 1), true).pure(pure);
+            else if (trailingNode != null)
+                result = new ParseResult<>(input, trailingNode, Arrays.copyOf(trailing, trailingDepth << 1), false).pure(pure);
+            else result = null;
+            this.tokens = null;
+            this.input = null;
+            this.exactNode = this.trailingNode = null;
+            return result;
+        }
+        
+        private void walk(Specialiser.Routes routes) {
+            try {
+                routes.walk(this);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new CommandRuntimeError(ex);
+            }
+        }
+        
+        int bound() {
+            return exactNode == null ? Integer.MAX_VALUE : exactNode.order;
+        }
+        
+        /**
+         * @return Whether a child whose earliest route is this one could still beat the best route found
+         */
+        boolean alive(int minimum) {
+            return minimum < bound();
+        }
+        
+        void walk(ArgumentNode<S> node, int depth, int token) {
+            if (node.isTerminal()) this.hit(node, depth, token);
+            if (node.children.isEmpty()) return;
+            final int start = this.open(depth, token);
+            if (!node.literals.isEmpty()) {
+                final MagicList<ArgumentNode<S>> bucket = node.literals.get(input, start, tokens.end(token));
+                if (bucket != null) for (ArgumentNode<S> child : bucket) {
+                    if (child.minimum >= bound()) break;
+                    this.close(depth, token);
+                    walk(child, depth + 1, token + 1);
+                }
+            }
+            for (ArgumentNode<S> child : node.typed) {
+                if (child.minimum >= bound()) break;
+                if (this.enter(child, depth, token)) walk(child, depth + 1, next);
+            }
+        }
+        
+        /**
+         * Keeps a route that ends at this token, if it beats the best found so far.
+         */
+        void hit(ArgumentNode<S> node, int depth, int token) {
+            if (node.order >= bound()) return;
+            if (tokens.isBlank(token)) {
+                System.arraycopy(bounds, 0, exact, 0, depth << 1);
+                exactNode = node;
+                exactDepth = depth;
+            } else if (trailingNode == null || node.order < trailingNode.order) {
+                System.arraycopy(bounds, 0, trailing, 0, depth << 1);
+                trailingNode = node;
+                trailingDepth = depth;
+            }
+        }
+        
+        /**
+         * Starts the argument at this depth on this token.
+         */
+        int open(int depth, int token) {
+            final int start = tokens.start(token);
+            bounds[depth << 1] = start;
+            return start;
+        }
+        
+        /**
+         * Ends the argument at this depth with this token.
+         */
+        void close(int depth, int token) {
+            bounds[(depth << 1) + 1] = tokens.end(token);
+        }
+        
+        /**
+         * Matches a child's argument from this token, spanning as many tokens as it takes.
+         *
+         * @return Whether it matched, leaving the token after it in {@link #next}
+         */
+        boolean enter(ArgumentNode<S> child, int depth, int token) {
+            final Argument<?> argument = child.argument;
+            if (!argument.isPure()) pure = false;
+            final int start = tokens.start(token);
+            int last = token;
+            if (argument.isFinal()) last = Math.max(token, tokens.count() - 1);
+            else if (argument.acceptSpaces())
+                while (last < tokens.count() - 1 && !child.scan(input, start, tokens.end(last))) last++;
+            final int end = tokens.end(last);
+            if (argument.isRequired()) {
+                if (!child.scan(input, start, end)) return false;
+                if (!argument.matches(input, start, end)) return false;
+            }
+            this.close(depth, last);
+            this.next = last + 1;
+            return true;
+        }
+        
+        void impure() {
+            this.pure = false;
+        }
+        
+        int start(int token) {
+            return tokens.start(token);
+        }
+        
+        int end(int token) {
+            return tokens.end(token);
+        }
+        
+        /**
+         * @return Whether this token is the case-folded literal
+         */
+        boolean literal(String key, int token) {
+            return LiteralIndex.equals(key, input, tokens.start(token), tokens.end(token));
+        }
+        
+        int hash(int token) {
+            return LiteralIndex.hash(input, tokens.start(token), tokens.end(token));
+        }
+    }
+    
+}
@@ -0,0 +1,96 @@
+package mx.kenzie.commander;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools for asynchronous command execution.
+ * <p>
+ * Virtual threads are looked up when the class loads, so the same artifact runs
+ * one virtual thread per command on JDKs that have them and falls back to a
+ * bounded platform pool everywhere else.
+ */
+final class AsyncExecutors {
+    
+    private static final MethodHandle VIRTUAL = findVirtual();
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    
+    private AsyncExecutors() {
+    }
+    
+    private static MethodHandle findVirtual() {
+        try {
+            final MethodHandle handle = MethodHandles.publicLookup()
+                .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            ((ExecutorService) handle.invokeExact()).shutdown(); // preview builds throw here
+            return handle;
+        } catch (Throwable ex) {
+            return null;
+        }
+    }
+    
+    static boolean isVirtualAvailable() {
+        return VIRTUAL != null;
+    }
+    
+    static int defaultPlatformThreads() {
+        return Math.max(16, Runtime.getRuntime().availableProcessors() * 8);
+    }
+    
+    /**
+     * A virtual thread per task when the runtime supports it,
+     * otherwise a pool of at most {@code platformThreads} daemon threads.
+     */
+    static @NotNull ExecutorService virtual(int platformThreads) {
+        if (VIRTUAL != null) try {
+            return (ExecutorService) VIRTUAL.invokeExact();
+        } catch (Throwable ignored) {
+        }
+        return bounded(platformThreads);
+    }
+    
+    /**
+     * At most {@code threads} platform threads, which time out when idle.
+     * Work beyond that waits in the queue rather than spawning more threads.
+     */
+    static @NotNull ExecutorService bounded(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Thread count must be positive.");
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), AsyncExecutors::thread);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * A single daemon thread working through an unbounded queue in order.
+     */
+    static @NotNull ThreadPoolExecutor serial() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), AsyncExecutors::thread);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * The shared pool that asks slow arguments for their completions.
+     * It never runs a task on the caller, so a completion deadline always holds,
+     * and cancelling a task interrupts its thread.
+     */
+    static @NotNull ExecutorService completions() {
+        return Completions.POOL;
+    }
+    
+    static Thread thread(Runnable runnable) {
+        final Thread thread = new Thread(runnable, "commander-" + COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+    
+    private static final class Completions {
+        static final ExecutorService POOL = virtual(defaultPlatformThreads());
+    }
+    
+}
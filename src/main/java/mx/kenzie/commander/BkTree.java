@@ -0,0 +1,102 @@
+package mx.kenzie.commander;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A Burkhard-Keller tree of words under Levenshtein distance.
+ * <p>
+ * Each child is filed under its distance from its parent, so a search for words within
+ * {@code n} edits of a query only descends into children whose distance lies within
+ * {@code n} of the query's own distance from the parent. Most of the tree is never compared.
+ */
+final class BkTree {
+    
+    private Entry root;
+    private int size;
+    
+    /**
+     * @param key   The word to measure against, e.g. case-folded
+     * @param value What to return when the key is close enough
+     */
+    void add(String key, String value) {
+        if (root == null) {
+            root = new Entry(key, value);
+            size++;
+            return;
+        }
+        Entry entry = root;
+        while (true) {
+            final int distance = distance(key, entry.key);
+            if (distance == 0) return;
+            final Entry child = entry.child(distance);
+            if (child == null) {
+                entry.put(distance, new Entry(key, value));
+                size++;
+                return;
+            }
+            entry = child;
+        }
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Passes every value within {@code max} edits of the query to the consumer, with its distance.
+     */
+    void search(String query, int max, ObjIntConsumer<String> consumer) {
+        if (root != null) search(root, query, max, consumer);
+    }
+    
+    private static void search(Entry entry, String query, int max, ObjIntConsumer<String> consumer) {
+        final int distance = distance(query, entry.key);
+        if (distance <= max) consumer.accept(entry.value, distance);
+        final Entry[] children = entry.children;
+        final int to = Math.min(children.length - 1, distance + max);
+        for (int i = Math.max(1, distance - max); i <= to; i++) {
+            if (children[i] != null) search(children[i], query, max, consumer);
+        }
+    }
+    
+    static int distance(String first, String second) {
+        if (first.length() < second.length()) return distance(second, first);
+        int[] previous = new int[second.length() + 1], current = new int[second.length() + 1];
+        for (int j = 0; j < previous.length; j++) previous[j] = j;
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            final char c = first.charAt(i - 1);
+            for (int j = 1; j <= second.length(); j++) {
+                final int cost = c == second.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            final int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[second.length()];
+    }
+    
+    private static final class Entry {
+        private static final Entry[] NONE = new Entry[0];
+        final String key;
+        final String value;
+        Entry[] children = NONE;
+        
+        Entry(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+        
+        Entry child(int distance) {
+            return distance < children.length ? children[distance] : null;
+        }
+        
+        void put(int distance, Entry entry) {
+            if (distance >= children.length) children = Arrays.copyOf(children, distance + 1);
+            children[distance] = entry;
+        }
+    }
+    
+}
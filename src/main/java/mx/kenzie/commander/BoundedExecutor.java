@@ -0,0 +1,50 @@
+package mx.kenzie.commander;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pool with a fixed number of threads and a fixed-size queue.
+ * Once both are full, the {@link Commander.Overflow} policy decides what gives.
+ */
+final class BoundedExecutor extends ThreadPoolExecutor {
+    
+    BoundedExecutor(int threads, int queued, Commander.Overflow overflow) {
+        super(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queued), AsyncExecutors::thread, handler(overflow));
+        this.allowCoreThreadTimeOut(true);
+    }
+    
+    private static RejectedExecutionHandler handler(Commander.Overflow overflow) {
+        return switch (overflow) {
+            case REJECT -> (runnable, executor) -> {
+                throw new RejectedExecutionException("Command queue is full.");
+            };
+            case CALLER_RUNS -> (runnable, executor) -> {
+                if (executor.isShutdown()) throw new RejectedExecutionException("Command pool is shut down.");
+                runnable.run();
+            };
+            case DROP_OLDEST -> (runnable, executor) -> {
+                if (executor.isShutdown()) throw new RejectedExecutionException("Command pool is shut down.");
+                final Runnable oldest = executor.getQueue().poll();
+                if (oldest instanceof Sheddable task)
+                    task.shed(new RejectedExecutionException("Command was dropped for a newer one."));
+                executor.execute(runnable);
+            };
+        };
+    }
+    
+    int depth() {
+        return getQueue().size();
+    }
+    
+    /**
+     * A queued task that has to be told when it is thrown away.
+     */
+    interface Sheddable {
+        void shed(RejectedExecutionException reason);
+    }
+    
+}
@@ -5,11 +5,7 @@ import mx.kenzie.magic.collection.MagicList;
 public record CommandContext<S>(S sender, String command, MagicList<Object> contextVariables, String... arguments) {
     
     protected CommandContext(S sender, String input) {
-        this(sender,
-            (input.indexOf(' ') == -1) ? input.trim() :
-                input.substring(0, input.indexOf(' ')),
-            (input.indexOf(' ') == -1) ? new String[0] :
-                input.substring(input.indexOf(' ')).trim().split(" "));
+        this(sender, label(input), arguments(input));
     }
     
     public CommandContext(S sender, String command, String... arguments) {
@@ -17,11 +13,28 @@ public record CommandContext<S>(S sender, String command, MagicList<Object> cont
     }
     
     public static <S> CommandContext<S> build(S sender, String input) {
+        return new CommandContext<>(sender, label(input), arguments(input));
+    }
+    
+    /**
+     * The arguments joined back together, as the command tree sees them.
+     */
+    public String input() {
+        return String.join(" ", arguments);
+    }
+    
+    private static String label(String input) {
+        final int space = input.indexOf(' ');
+        return (space == -1) ? input.trim() : input.substring(0, space);
+    }
+    
+    private static String[] arguments(String input) {
         final int space = input.indexOf(' ');
-        final String label = (space == -1) ? input.trim() : input.substring(0, space);
-        final String[] args = (space == -1) ? new String[0] :
-            input.substring(space).trim().split(" ");
-        return new CommandContext<>(sender, label, args);
+        if (space == -1) return new String[0];
+        int start = space, end = input.length();
+        while (start < end && input.charAt(start) <= ' ') start++;
+        while (end > start && input.charAt(end - 1) <= ' ') end--;
+        return new Tokenizer(input, start, end).tokens();
     }
     
 }
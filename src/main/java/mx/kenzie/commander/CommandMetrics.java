@@ -0,0 +1,142 @@
+package mx.kenzie.commander;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The per-route metrics of one commander, see {@link Commander.CommandImpl#recordMetrics()}.
+ * <p>
+ * Routes are kept by their usage, so their counts carry over when the commander recompiles.
+ * Inputs that match no route, and run the default or unknown action, are counted under the empty route.
+ */
+public final class CommandMetrics {
+    
+    /**
+     * The upper bounds of the exported histogram buckets, in nanoseconds: every fourth power of two
+     * from 256ns to about 17s. Each is the edge of a {@link LatencyHistogram} bucket, so the exported counts are exact.
+     */
+    private static final long[] BOUNDS = new long[14];
+    
+    static {
+        for (int i = 0; i < BOUNDS.length; i++) BOUNDS[i] = 1L << (8 + i * 2);
+    }
+    
+    final String command;
+    final RouteMetrics unmatched = new RouteMetrics("");
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+    
+    CommandMetrics(String command) {
+        this.command = command;
+    }
+    
+    RouteMetrics route(String usage) {
+        if (usage.isEmpty()) return unmatched;
+        return routes.computeIfAbsent(usage, RouteMetrics::new);
+    }
+    
+    /**
+     * @return The command label these metrics belong to
+     */
+    public @NotNull String getCommand() {
+        return command;
+    }
+    
+    /**
+     * @return The metrics of every route, with the unmatched inputs first
+     */
+    public @NotNull List<RouteMetrics.Snapshot> snapshot() {
+        final List<RouteMetrics.Snapshot> list = new ArrayList<>(routes.size() + 1);
+        list.add(unmatched.snapshot());
+        for (RouteMetrics metrics : routes.values()) list.add(metrics.snapshot());
+        return list;
+    }
+    
+    /**
+     * @return These metrics in the Prometheus text format
+     */
+    public @NotNull String toPrometheus() {
+        return toPrometheus(List.of(this));
+    }
+    
+    /**
+     * Writes the metrics of many commanders in the Prometheus text format, each route labelled with
+     * its command and usage, and each latency histogram with its phase.
+     *
+     * @param metrics The metrics of each commander
+     * @return The text, ending in a line break
+     */
+    public static @NotNull String toPrometheus(@NotNull Iterable<CommandMetrics> metrics) {
+        final StringBuilder builder = new StringBuilder();
+        writePrometheus(builder, metrics);
+        return builder.toString();
+    }
+    
+    /**
+     * @see #toPrometheus(Iterable)
+     */
+    public static void writePrometheus(@NotNull Appendable out, @NotNull Iterable<CommandMetrics> metrics) {
+        final List<String> labels = new ArrayList<>();
+        final List<RouteMetrics.Snapshot> snapshots = new ArrayList<>();
+        for (CommandMetrics command : metrics) {
+            for (RouteMetrics.Snapshot snapshot : command.snapshot()) {
+                labels.add("command=\"" + escape(command.command) + "\",route=\"" + escape(snapshot.route()) + "\"");
+                snapshots.add(snapshot);
+            }
+        }
+        try {
+            counter(out, "commander_route_invocations_total", "Times a route's action ran.", labels, snapshots, 0);
+            counter(out, "commander_route_failures_total", "Times a route's action threw.", labels, snapshots, 1);
+            counter(out, "commander_route_rejections_total", "Times the predicate refused a route.", labels, snapshots, 2);
+            out.append("# HELP commander_route_phase_seconds Time spent in each phase of dispatching a route.\n");
+            out.append("# TYPE commander_route_phase_seconds histogram\n");
+            for (int i = 0; i < snapshots.size(); i++) {
+                final RouteMetrics.Snapshot snapshot = snapshots.get(i);
+                histogram(out, labels.get(i) + ",phase=\"parse\"", snapshot.parse());
+                histogram(out, labels.get(i) + ",phase=\"predicate\"", snapshot.predicate());
+                histogram(out, labels.get(i) + ",phase=\"action\"", snapshot.action());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    private static void counter(Appendable out, String name, String help, List<String> labels, List<RouteMetrics.Snapshot> snapshots, int field) throws IOException {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        for (int i = 0; i < snapshots.size(); i++) {
+            final RouteMetrics.Snapshot snapshot = snapshots.get(i);
+            final long value = switch (field) {
+                case 0 -> snapshot.invocations();
+                case 1 -> snapshot.failures();
+                default -> snapshot.rejections();
+            };
+            out.append(name).append('{').append(labels.get(i)).append("} ").append(Long.toString(value)).append('\n');
+        }
+    }
+    
+    private static void histogram(Appendable out, String labels, LatencyHistogram.Snapshot histogram) throws IOException {
+        final String name = "commander_route_phase_seconds";
+        for (long bound : BOUNDS) {
+            out.append(name).append("_bucket{").append(labels).append(",le=\"").append(seconds(bound)).append("\"} ")
+                .append(Long.toString(histogram.countBelow(bound))).append('\n');
+        }
+        out.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(Long.toString(histogram.count())).append('\n');
+        out.append(name).append("_sum{").append(labels).append("} ").append(seconds(histogram.sum())).append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(Long.toString(histogram.count())).append('\n');
+    }
+    
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+    
+}
@@ -0,0 +1,221 @@
+package mx.kenzie.commander;
+
+import mx.kenzie.commander.exception.IllegalCommandException;
+import mx.kenzie.magic.collection.MagicList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Routes command lines to the {@link Commander} that owns their label.
+ * <p>
+ * Every namespace and alias is kept in one case-insensitive hash table, along with a
+ * prefixed form ({@code plugin:command}) when the commander is registered under a prefix.
+ * Finding the owner of an input line is a single lookup on its first word, however many commanders are registered.
+ * <p>
+ * Registration copies the table and swaps it in, so dispatching threads never see a partial update.
+ * Use {@link #registerAll(Collection)} to register many commanders with a single copy.
+ * When a registered commander is recompiled with different labels, the table is rebuilt.
+ *
+ * @param <S> The command sender type
+ */
+public class CommandRegistry<S> {
+    
+    private final MagicList<Registration<S>> registrations = new MagicList<>();
+    private volatile LiteralIndex<Commander<S>> labels = new LiteralIndex<>();
+    
+    /**
+     * Registers a commander under its namespace and aliases.
+     * Labels that are already taken keep their original owner.
+     *
+     * @param commander The commander
+     * @return This registry, allowing for method chaining
+     */
+    public CommandRegistry<S> register(@NotNull Commander<S> commander) {
+        return register(null, commander);
+    }
+    
+    /**
+     * Registers a commander under its namespace and aliases, and under {@code prefix:label} for each of them.
+     * The prefixed labels stay reachable when a bare label is taken by another commander.
+     * Prefixed labels that are already taken keep their original owner too.
+     *
+     * @param prefix    The owner's prefix, such as a plugin name
+     * @param commander The commander
+     * @return This registry, allowing for method chaining
+     */
+    public CommandRegistry<S> register(@Nullable String prefix, @NotNull Commander<S> commander) {
+        return registerAll(prefix, List.of(commander));
+    }
+    
+    /**
+     * Registers many commanders at once, in order, copying the table only once.
+     *
+     * @param commanders The commanders
+     * @return This registry, allowing for method chaining
+     * @see #register(Commander)
+     */
+    public CommandRegistry<S> registerAll(@NotNull Collection<? extends Commander<S>> commanders) {
+        return registerAll(null, commanders);
+    }
+    
+    /**
+     * Registers many commanders at once under one prefix, in order, copying the table only once.
+     *
+     * @param prefix     The owner's prefix, such as a plugin name
+     * @param commanders The commanders
+     * @return This registry, allowing for method chaining
+     * @see #register(String, Commander)
+     */
+    public synchronized CommandRegistry<S> registerAll(@Nullable String prefix, @NotNull Collection<? extends Commander<S>> commanders) {
+        if (prefix != null && (prefix.isEmpty() || prefix.indexOf(' ') != -1 || prefix.indexOf(':') != -1))
+            throw new IllegalCommandException("Invalid command prefix: '" + prefix + "'");
+        final LiteralIndex<Commander<S>> index = labels.copy();
+        for (Commander<S> commander : commanders) {
+            final Registration<S> registration = new Registration<>(prefix, commander);
+            registration.index(index);
+            registrations.add(registration);
+            commander.registries.add(this);
+        }
+        labels = index;
+        return this;
+    }
+    
+    /**
+     * Removes a commander and every label it owns.
+     * Labels it had taken from other commanders become available to them again.
+     *
+     * @param commander The commander
+     * @return Whether the commander was registered
+     */
+    public synchronized boolean unregister(@NotNull Commander<S> commander) {
+        if (!registrations.removeIf(registration -> registration.commander == commander)) return false;
+        commander.registries.remove(this);
+        this.reindex();
+        return true;
+    }
+    
+    /**
+     * Rebuilds the table from every registration in order, such as when a commander's labels change.
+     */
+    synchronized void reindex() {
+        final LiteralIndex<Commander<S>> index = new LiteralIndex<>();
+        for (Registration<S> registration : registrations) registration.index(index);
+        labels = index;
+    }
+    
+    /**
+     * @param label A command label, optionally prefixed
+     * @return The commander that owns this label, or null
+     */
+    public @Nullable Commander<S> get(@NotNull String label) {
+        return labels.get(label);
+    }
+    
+    /**
+     * Finds the owner of a raw input line from its first word, without copying it.
+     *
+     * @param input The input, such as "warp set home"
+     * @return The commander that owns the line's label, or null
+     */
+    public @Nullable Commander<S> resolve(@NotNull String input) {
+        final int space = input.indexOf(' ');
+        return labels.get(input, 0, space == -1 ? input.length() : space);
+    }
+    
+    public boolean contains(@NotNull String label) {
+        return labels.get(label) != null;
+    }
+    
+    public synchronized @NotNull List<Commander<S>> getCommanders() {
+        return registrations.collect(Registration::commander);
+    }
+    
+    /**
+     * Dispatches a raw input line to the commander that owns it.
+     *
+     * @param sender The sender
+     * @param input  The input, such as "warp set home"
+     * @return False if no commander owns the label, otherwise the result of {@link Commander#execute(CommandContext)}
+     */
+    public boolean execute(S sender, @NotNull String input) {
+        final Commander<S> commander = resolve(input);
+        if (commander == null) return false;
+        return commander.execute(CommandContext.build(sender, input));
+    }
+    
+    public boolean execute(@NotNull CommandContext<S> context) {
+        final Commander<S> commander = get(context.command());
+        if (commander == null) return false;
+        return commander.execute(context);
+    }
+    
+    /**
+     * Dispatches a raw input line to the commander that owns it, on that commander's thread pool.
+     *
+     * @param sender The sender
+     * @param input  The input, such as "warp set home"
+     * @return The execution, or null if no commander owns the label
+     */
+    public @Nullable CompletableFuture<Void> executeAsync(S sender, @NotNull String input) {
+        final Commander<S> commander = resolve(input);
+        if (commander == null) return null;
+        return commander.executeAsync(CommandContext.build(sender, input));
+    }
+    
+    /**
+     * Executes many command lines from one sender, such as a console script.
+     *
+     * @return Whether each line was owned by a commander and executed without error, in the order given
+     * @see Commander#executeBatch(Collection)
+     */
+    public boolean[] executeBatch(S sender, @NotNull Collection<String> lines) {
+        final List<CommandContext<S>> contexts = new ArrayList<>(lines.size());
+        for (String line : lines) contexts.add(CommandContext.build(sender, line));
+        return executeBatch(contexts);
+    }
+    
+    /**
+     * Hands each run of consecutive contexts owned by the same commander to that commander at once,
+     * one run after another, so the lines still take effect in the order given.
+     *
+     * @return Whether each context was owned by a commander and executed without error, in the order given
+     * @see Commander#executeBatch(Collection)
+     */
+    public boolean[] executeBatch(@NotNull Collection<CommandContext<S>> contexts) {
+        final boolean[] results = new boolean[contexts.size()];
+        final LiteralIndex<Commander<S>> labels = this.labels;
+        final List<CommandContext<S>> run = new ArrayList<>();
+        Commander<S> owner = null;
+        int index = 0, first = 0;
+        for (CommandContext<S> context : contexts) {
+            final Commander<S> commander = labels.get(context.command());
+            if (commander != owner) {
+                if (owner != null) System.arraycopy(owner.executeBatch(run), 0, results, first, run.size());
+                run.clear();
+                owner = commander;
+                first = index;
+            }
+            if (commander != null) run.add(context);
+            index++;
+        }
+        if (owner != null) System.arraycopy(owner.executeBatch(run), 0, results, first, run.size());
+        return results;
+    }
+    
+    private record Registration<S>(@Nullable String prefix, Commander<S> commander) {
+        
+        void index(LiteralIndex<Commander<S>> index) {
+            final MagicList<String> names = new MagicList<>(commander.getCommand());
+            names.addAll(commander.getAliases());
+            for (String name : names) {
+                if (index.get(name) == null) index.put(name, commander);
+                if (prefix != null && index.get(prefix + ":" + name) == null) index.put(prefix + ":" + name, commander);
+            }
+        }
+        
+    }
+    
+}
@@ -1,8 +1,6 @@
 package mx.kenzie.commander;
 
-import mx.kenzie.commander.arg.ArgLiteral;
-import mx.kenzie.commander.arg.ArgLiteralPlural;
-import mx.kenzie.commander.arg.Argument;
+import mx.kenzie.commander.arg.*;
 import mx.kenzie.commander.exception.CommandParseError;
 import mx.kenzie.commander.exception.CommandRuntimeError;
 import mx.kenzie.commander.exception.IllegalCommandException;
@@ -15,99 +13,157 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public abstract class Commander<S> {
     
+    /**
+     * The pool whose command this thread is running, so that a batch started from it runs in place rather than waiting on it.
+     */
+    private static final ThreadLocal<Executor> RUNNING = new ThreadLocal<>();
+    private static final Object[] NO_VALUES = new Object[0];
     protected final MagicStringList aliases = new MagicStringList();
-    final MagicStringList patterns = new MagicStringList();
-    final MagicMap<String, @Nullable String> patternDescriptions = new MagicMap<>();
-    final ArgumentTree tree = new ArgumentTree();
+    private final ThreadLocal<String> input = new ThreadLocal<>();
+    volatile Snapshot snapshot;
+    private ArgumentTree building;
+    private final MagicStringList stagedAliases = new MagicStringList();
     protected CommandSingleAction<S> defaultAction;
     protected Function<CommandContext<S>, Boolean> predicate;
     protected Consumer<CommandContext<S>> failureAction;
     protected BiConsumer<CommandContext<S>, Throwable> error = null;
-    protected ExecutorService pool;
+    protected BiConsumer<S, List<String>> unknownAction = null;
+    protected volatile ExecutorService pool;
     protected String description;
     private String namespace;
-    private volatile String input;
+    private int cacheSize;
+    private boolean specialise;
+    private boolean recordMetrics;
+    private PoolRequest requestedPool, poolRequest;
+    private CommandMetrics metrics;
+    private final LongAdder cacheHits = new LongAdder(), cacheMisses = new LongAdder();
+    final Set<CommandRegistry<S>> registries = new CopyOnWriteArraySet<>();
     
     {
         pool = null;
         predicate = s -> true;
         defaultAction = getDefault();
-        failureAction = context -> defaultAction.accept(context.sender());
+        failureAction = context -> snapshot().defaultAction.accept(context.sender());
+    }
+    
+    /**
+     * Compiles the command straight away, running {@link #create()} from this constructor.
+     */
+    protected Commander() {
         compile();
     }
     
-    final void compile() {
-        patterns.clear();
-        patternDescriptions.clear();
-        aliases.clear();
-        tree.clear();
-        create();
-        final String regex = "^[^\\[<\\n]+((?> [<\\[]\\S+[]>])+)$";
-        Pattern pattern = Pattern.compile(regex);
-        {
-            MagicList<String> list = new MagicList<>(getPossibleArguments());
-            MagicList<String> catcher = new MagicList<>(list);
-            catcher.removeIf(s -> !s.contains("<") && !s.contains("["));
-            catcher.removeIf(s -> !s.matches(regex));
-            for (String string : new ArrayList<>(catcher)) {
-                Matcher matcher = pattern.matcher(string);
-                if (!matcher.find()) continue;
-                String group = matcher.group(1).trim();
-                String test = string.replace(group, "").trim();
-                boolean matches = false;
-                for (String str : new ArrayList<>(list)) {
-                    if (str.trim().equalsIgnoreCase(test)) {
-                        matches = true;
-                        list.remove(str);
-                    }
-                }
-                if (matches) {
-                    list.remove(string);
-                    list.add(group.contains("<") ? (test + " [" + group + "]") : (test + " " + group));
-                }
-            }
-            patterns.addAll(list);
-            Collections.sort(patterns);
+    /**
+     * Registers only the labels now, and defers {@link #create()} and everything built from it
+     * until the command is first dispatched, completed or asked for help.
+     * <p>
+     * This keeps startup cheap with many commanders, most of which may never be used.
+     * The labels given here should be the same as those passed to {@link #command(String, String...)}.
+     *
+     * @param namespace The command label
+     * @param aliases   The command aliases
+     */
+    protected Commander(@NotNull String namespace, String... aliases) {
+        snapshot = new Snapshot(namespace, new MagicStringList(aliases));
+        this.aliases.addAll(aliases);
+    }
+    
+    /**
+     * The compiled snapshot, compiling it first if this commander is lazy and has not been used yet.
+     */
+    final Snapshot snapshot() {
+        final Snapshot snapshot = this.snapshot;
+        if (!snapshot.lazy) return snapshot;
+        synchronized (this) {
+            if (this.snapshot.lazy) compile();
+            return this.snapshot;
         }
-        {
-            MagicMap<String, String> map = new MagicMap<>(getPatternDesc());
-            MagicMap<String, String> catcher = new MagicMap<>(map);
-            catcher.removeIf(s -> !s.contains("<") && !s.contains("["));
-            catcher.removeIf(s -> !s.matches(regex));
-            for (String string : new ArrayList<>(catcher.keySet())) {
-                Matcher matcher = pattern.matcher(string);
-                if (!matcher.find()) continue;
-                String group = matcher.group(1).trim();
-                String test = string.replace(group, "").trim();
-                boolean matches = false;
-                for (String str : new ArrayList<>(map.keySet())) {
-                    if (str.trim().equalsIgnoreCase(test)) {
-                        matches = true;
-                        map.remove(str);
-                    }
-                }
-                if (matches) {
-                    String desc = map.remove(string);
-                    map.put(group.contains("<") ? (test + " [" + group + "]") : (test + " " + group), desc);
-                }
-            }
-            patternDescriptions.putAll(map);
+    }
+    
+    /**
+     * Re-runs {@link #create()} and swaps the result in, e.g. after the state it reads has changed.
+     * Commands already dispatching finish against the routes they started with.
+     */
+    public final void recompile() {
+        compile();
+    }
+    
+    /**
+     * Builds the route tree, help patterns and descriptions from {@link #create()}, then publishes them together.
+     * Dispatching threads keep using the previous snapshot until the new one is swapped in, and never lock.
+     */
+    final synchronized void compile() {
+        final ArgumentTree tree = building = new ArgumentTree();
+        final MagicStringList labels = new MagicStringList();
+        try {
+            namespace = null;
+            cacheSize = 0;
+            specialise = false;
+            recordMetrics = false;
+            requestedPool = null;
+            create();
+            labels.addAll(stagedAliases);
+        } finally {
+            building = null;
+            stagedAliases.clear();
         }
+        this.applyPool(requestedPool);
+        final ArgumentNode<S> node = new ArgumentNode<>(null);
+        int order = 0;
+        for (Map.Entry<ArgumentEntry, CommandAction<S>> entry : tree.entrySet()) {
+            node.insert(entry.getKey(), entry.getValue(), order++);
+        }
+        if (specialise) Specialiser.specialise(node);
+        final CompletionIndex completions = new CompletionIndex(tree.keySet());
+        final HelpIndex help = new HelpIndex(tree.keySet());
+        if (recordMetrics && metrics == null) metrics = new CommandMetrics(namespace);
+        if (recordMetrics) for (ArgumentEntry entry : tree.keySet()) entry.metrics = metrics.route(entry.args);
+        final Snapshot previous = snapshot;
+        snapshot = new Snapshot(namespace, labels, tree, node, completions, help, cacheSize > 0 ? new ParseCache<>(cacheSize) : null, recordMetrics ? metrics : null);
+        aliases.clear();
+        aliases.addAll(labels);
+        if (previous != null && (!Objects.equals(previous.namespace, namespace) || !previous.aliases.equals(labels)))
+            for (CommandRegistry<S> registry : registries) registry.reindex();
+    }
+    
+    /**
+     * Builds the pool that {@link #create()} asked for, unless it asked for the same pool as last time,
+     * which is kept so in-flight commands stay in their lanes and under their caps.
+     * If it no longer asks for one, commands run on the caller again.
+     * A pool this commander built and no longer uses is shut down once its queued commands finish.
+     */
+    private void applyPool(@Nullable PoolRequest request) {
+        final PoolRequest previous = poolRequest;
+        if (request == null && previous == null) return;
+        if (request != null && previous != null && previous.settings.equals(request.settings)) return;
+        final ExecutorService old = pool;
+        pool = request == null ? null : request.factory.get();
+        poolRequest = request;
+        if (previous != null && previous.owned && old != pool) old.shutdown();
     }
     
     public boolean canExecute(CommandContext<S> context) {
-        return predicate.apply(context);
+        return snapshot().predicate.apply(context);
     }
     
     public CompletableFuture<Boolean> canExecuteAsync(CommandContext<S> context) {
@@ -117,6 +173,7 @@ public abstract class Commander<S> {
     protected abstract CommandImpl create();
     
     public MagicList<String> getPossibleArguments(String... inputs) {
+        final ArgumentTree tree = snapshot().tree;
         if (inputs.length == 0)
             return new MagicList<>(tree.keySet()).collect(entry -> entry.args);
         String input = String.join(" ", inputs);
@@ -125,20 +182,12 @@ public abstract class Commander<S> {
         return list.collect(entry -> entry.args);
     }
     
-    private @NotNull Map<@NotNull String, @Nullable String> getPatternDesc() {
-        Map<@NotNull String, @Nullable String> map = new MagicMap<>();
-        for (ArgumentEntry entry : tree.keySet()) {
-            map.put(entry.args, entry.description);
-        }
-        return map;
-    }
-    
     public String getDescription() {
-        return description;
+        return snapshot().description;
     }
     
     public boolean matchesLabel(final CommandContext<S> context) {
-        return namespace.equalsIgnoreCase(context.command()) || aliases.containsIgnoreCase(context.command());
+        return snapshot.matchesLabel(context.command());
     }
     
     public boolean execute(S sender, String command, String... args) {
@@ -146,107 +195,349 @@ public abstract class Commander<S> {
     }
     
     public boolean execute(final CommandContext<S> context) {
+        final Snapshot snapshot = snapshot(); // a lazy commander sets up its pool and predicate while compiling
         final boolean async = (pool != null);
         final Runnable executor = prepareCommandExecution(context);
         try {
-            if (async) canExecuteAsync(context)
-                .thenAcceptAsync(boo -> {
-                    if (boo) executor.run();
-                    else failureAction.accept(context);
-                }, pool);
-            else if (canExecute(context))
+            if (async) dispatch(context, snapshot, executor);
+            else if (permit(context, executor))
                 executor.run();
-            else failureAction.accept(context);
+            else snapshot.failureAction.accept(context);
             return true;
         } catch (Throwable throwable) {
-            if (error == null) throw new CommandParseError(throwable);
-            else error.accept(context, throwable);
+            if (snapshot.error == null) throw new CommandParseError(throwable);
+            else snapshot.error.accept(context, throwable);
             return false;
         }
     }
     
     protected Runnable prepareCommandExecution(final CommandContext<S> context) {
+        final Snapshot snapshot = snapshot();
+        try {
+            final String input = context.input();
+            return prepare(context, snapshot, null, input);
+        } catch (Throwable throwable) {
+            if (snapshot.error == null) throw new CommandParseError(throwable);
+            else snapshot.error.accept(context, throwable);
+            return null;
+        }
+    }
+    
+    /**
+     * Resolves an input against one snapshot, through its parse cache when it has one.
+     */
+    private @Nullable ParseResult<S> parse(final Snapshot snapshot, final ArgumentNode.@Nullable Parser<S> parser, final String input) {
+        final ParseCache<S> cache = snapshot.cache;
+        if (cache != null) {
+            final ParseResult<S> cached = cache.get(input);
+            if (cached != null) {
+                cacheHits.increment();
+                return cached;
+            }
+            cacheMisses.increment();
+        }
+        final ParseResult<S> result = (parser != null ? parser : snapshot.parsers.get()).parse(input);
+        if (cache != null && result != null) cache.put(input, result);
+        return result;
+    }
+    
+    private Runnable prepare(final CommandContext<S> context, final Snapshot snapshot, final ArgumentNode.@Nullable Parser<S> parser, final String input) {
+        final CommandMetrics metrics = snapshot.metrics;
+        final long start = metrics == null ? 0 : System.nanoTime();
+        final ParseResult<S> result = parse(snapshot, parser, input);
+        final RouteMetrics route = metrics == null ? null : result == null ? metrics.unmatched : result.entry().metrics;
+        if (route != null) route.parse.record(System.nanoTime() - start);
         final S sender = context.sender();
-        final String[] inputs = context.arguments();
+        if (result != null) {
+            final Object[] values;
+            if (result.isPrimitive()) values = null;
+            else if (result.action() instanceof CommandSingleAction) values = NO_VALUES;
+            else values = result.isPure() ? result.values().clone() : result.values(); // pure results may be shared by the cache
+            return new Prepared<>(this.input, input, route, sender, result, values, null, null, null);
+        }
+        final List<String> suggestions;
+        if (snapshot.unknownAction != null && !(suggestions = getSuggestions(context.arguments())).isEmpty())
+            return new Prepared<>(this.input, input, route, sender, null, null, snapshot.unknownAction, suggestions, null);
+        return new Prepared<>(this.input, input, route, sender, null, null, null, null, snapshot.defaultAction);
+    }
+    
+    /**
+     * Checks the predicate for a prepared command, timing it if its route records metrics.
+     */
+    private boolean permit(final CommandContext<S> context, final Runnable executor) {
+        final RouteMetrics route = executor instanceof Prepared<?> prepared ? prepared.route : null;
+        if (route == null) return canExecute(context);
+        final long start = System.nanoTime();
+        final boolean permitted;
         try {
-            input = String.join(" ", inputs);
-            final MagicList<Map.Entry<ArgumentEntry, CommandAction<S>>> list = new MagicList<>(tree.entrySet());
-            final MagicMap<Map.Entry<ArgumentEntry, CommandAction<S>>, ArgumentEntry.Result> map = new MagicMap<>();
-            for (Map.Entry<ArgumentEntry, CommandAction<S>> entry : list) {
-                final ArgumentEntry.Result result = entry.getKey().matchesEntry(input);
-                if (result == ArgumentEntry.Result.FALSE) continue;
-                map.put(entry, result);
-            }
-            final Runnable executor;
-            if (!map.isEmpty()) {
-                final ArgumentEntry entry;
-                final CommandAction<S> action;
-                final MagicMap<Map.Entry<ArgumentEntry, CommandAction<S>>, ArgumentEntry.Result> perfect = new MagicMap<>(map);
-                perfect.entrySet().removeIf(e -> e.getValue() == ArgumentEntry.Result.TRAILING);
-                if (perfect.isEmpty()) {
-                    entry = map.getFirst().getKey().getKey();
-                    action = map.getFirst().getKey().getValue();
-                } else {
-                    entry = perfect.getFirst().getKey().getKey();
-                    action = perfect.getFirst().getKey().getValue();
-                }
-                final Object[] values = (action instanceof CommandSingleAction) ? new Object[0]
-                    : entry.compileEntry(input);
-                executor = () -> {
-                    try {
-                        action.accept(sender, values);
-                    } catch (Throwable ex) {
-                        throw new CommandRuntimeError(ex);
-                    }
-                };
-            } else {
-                executor = () -> {
+            permitted = canExecute(context);
+        } finally {
+            route.predicate.record(System.nanoTime() - start);
+        }
+        if (!permitted) route.rejections.increment();
+        return permitted;
+    }
+    
+    /**
+     * Executes many commands in one call, such as the lines of a console script.
+     * <p>
+     * Every input is parsed on the calling thread, sharing one tokenizer and one set of parse buffers,
+     * and each command is checked and run exactly as {@link #execute(CommandContext)} would.
+     * Without a thread pool the commands run here in order; with one they are handed to the pool in chunks
+     * rather than one task each, and this waits for all of them. Called from a command already running on
+     * this commander's pool, where waiting for the pool could deadlock, the commands run here in order instead.
+     * A failing command is passed to the error handler, if there is one, and the rest carry on.
+     * Without an error handler the failure is thrown as a {@link CommandParseError}, as it is from {@link #execute(CommandContext)}.
+     *
+     * @return Whether each command was executed without error, in the order given
+     */
+    public boolean[] executeBatch(final Collection<CommandContext<S>> contexts) {
+        snapshot();
+        if (pool != null && RUNNING.get() == pool) {
+            final Batch batch = this.prepareBatch(contexts);
+            for (int i = 0; i < batch.contexts.size(); i++) if (batch.executors[i] != null) batch.run(i);
+            return batch.results();
+        }
+        if (pool != null) try {
+            return executeBatchAsync(contexts).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof CommandParseError cause) throw cause;
+            throw ex;
+        }
+        final boolean[] results = new boolean[contexts.size()];
+        final Snapshot snapshot = snapshot();
+        final ArgumentNode.Parser<S> parser = snapshot.root.parser();
+        int index = 0;
+        for (CommandContext<S> context : contexts) {
+            final Runnable executor = prepareBatch(context, snapshot, parser);
+            results[index++] = executor != null && runBatch(context, snapshot, executor);
+        }
+        return results;
+    }
+    
+    /**
+     * Dispatches many commands to the thread pool in chunks. Each command's predicate is checked with
+     * {@link #canExecuteAsync(CommandContext)}, and a chunk is handed over once all of its commands have their answer.
+     * Commands that share a serial lane stay in order within it.
+     * <p>
+     * When the pool sheds a chunk, each of its commands is passed to the error handler, or the failure action.
+     * Without an error handler, the future fails with a {@link CommandParseError} if any command failed.
+     *
+     * @return The results of each command, as in {@link #executeBatch(Collection)}
+     */
+    public CompletableFuture<boolean[]> executeBatchAsync(final Collection<CommandContext<S>> contexts) {
+        snapshot();
+        if (pool == null)
+            throw new IllegalCommandException("Cannot dispatch asynchronous command execution without a thread pool!");
+        final Batch batch = this.prepareBatch(contexts);
+        final int size = batch.contexts.size();
+        final MagicMap<Executor, MagicList<Integer>> lanes = new MagicMap<>();
+        for (int i = 0; i < size; i++) {
+            if (batch.executors[i] != null) lanes.computeIfAbsent(executor(batch.contexts.get(i)), key -> new MagicList<>()).add(i);
+        }
+        final int chunk = Math.max(1, size / (Runtime.getRuntime().availableProcessors() * 4));
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (MagicList<Integer> indices : lanes.values()) {
+            CompletableFuture<?> previous = CompletableFuture.completedFuture(null);
+            for (int from = 0; from < indices.size(); from += chunk) {
+                final Chunk task = new Chunk(batch, indices.subList(from, Math.min(indices.size(), from + chunk)));
+                futures.add(task.future);
+                final CompletableFuture<?>[] waits = new CompletableFuture<?>[task.indices.size() + 1];
+                for (int i = 0; i < task.indices.size(); i++) waits[i] = batch.permits[task.indices.get(i)];
+                waits[waits.length - 1] = previous; // a lane's chunks are handed over in order
+                previous = CompletableFuture.allOf(waits).handle((done, thrown) -> {
                     try {
-                        defaultAction.accept(sender);
-                    } catch (Throwable ex) {
-                        throw new CommandRuntimeError(ex);
+                        this.submit(batch.contexts.get(task.indices.get(0)), task);
+                    } catch (RejectedExecutionException ex) {
+                        task.shed(ex);
                     }
-                };
+                    return null;
+                });
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(done -> batch.results());
+    }
+    
+    /**
+     * Parses every command of a batch, and asks for each one's asynchronous predicate.
+     */
+    private Batch prepareBatch(final Collection<CommandContext<S>> contexts) {
+        final Snapshot snapshot = snapshot();
+        final Batch batch = new Batch(contexts, snapshot);
+        final ArgumentNode.Parser<S> parser = snapshot.root.parser();
+        for (int i = 0; i < batch.contexts.size(); i++) {
+            final CommandContext<S> context = batch.contexts.get(i);
+            final Runnable executor = batch.executors[i] = prepareBatch(context, snapshot, parser);
+            if (executor == null) continue;
+            try {
+                batch.permits[i] = permitAsync(context, executor);
+            } catch (Throwable throwable) {
+                batch.permits[i] = CompletableFuture.failedFuture(throwable);
             }
-            return executor;
+        }
+        return batch;
+    }
+    
+    private Runnable prepareBatch(final CommandContext<S> context, final Snapshot snapshot, final ArgumentNode.Parser<S> parser) {
+        try {
+            final String input = context.input();
+            return prepare(context, snapshot, parser, input);
         } catch (Throwable throwable) {
-            if (error == null) throw new CommandParseError(throwable);
-            else error.accept(context, throwable);
+            if (snapshot.error == null) throw new CommandParseError(throwable);
+            else snapshot.error.accept(context, throwable);
             return null;
         }
     }
     
+    private boolean runBatch(final CommandContext<S> context, final Snapshot snapshot, final Runnable executor) {
+        try {
+            if (permit(context, executor)) executor.run();
+            else snapshot.failureAction.accept(context);
+            return true;
+        } catch (Throwable throwable) {
+            if (snapshot.error == null) throw new CommandParseError(throwable);
+            else snapshot.error.accept(context, throwable);
+            return false;
+        }
+    }
+    
     public CompletableFuture<Void> executeAsync(S sender, String command, String... args) {
         return executeAsync(new CommandContext<>(sender, command, args));
     }
     
     public CompletableFuture<Void> executeAsync(final CommandContext<S> context) {
+        final Snapshot snapshot = snapshot();
         final boolean async = (pool != null);
         if (!async)
             throw new IllegalCommandException("Cannot dispatch asynchronous command execution without a thread pool!");
         final Runnable executor = prepareCommandExecution(context);
         try {
-            return canExecuteAsync(context)
-                .thenAcceptAsync(boo -> {
-                    if (boo) executor.run();
-                    else failureAction.accept(context);
-                }, pool);
+            return dispatch(context, snapshot, executor);
         } catch (Throwable throwable) {
-            if (error == null) throw new CommandParseError(throwable);
-            else error.accept(context, throwable);
+            if (snapshot.error == null) throw new CommandParseError(throwable);
+            else snapshot.error.accept(context, throwable);
             return CompletableFuture.completedFuture(null);
         }
     }
     
+    private CompletableFuture<Void> dispatch(final CommandContext<S> context, final Snapshot snapshot, final Runnable executor) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        permitAsync(context, executor).whenComplete((boo, thrown) -> {
+            if (thrown != null) {
+                future.completeExceptionally(thrown);
+                return;
+            }
+            final Dispatch task = new Dispatch(context, snapshot, future, boo ? executor : () -> snapshot.failureAction.accept(context));
+            try {
+                this.submit(context, task);
+            } catch (RejectedExecutionException ex) {
+                task.shed(ex);
+            }
+        });
+        return future;
+    }
+    
+    /**
+     * Checks the asynchronous predicate for a prepared command, timing it if its route records metrics.
+     */
+    private CompletableFuture<Boolean> permitAsync(final CommandContext<S> context, final Runnable executor) {
+        final RouteMetrics route = executor instanceof Prepared<?> prepared ? prepared.route : null;
+        if (route == null) return canExecuteAsync(context);
+        final long start = System.nanoTime();
+        return canExecuteAsync(context).whenComplete((boo, thrown) -> {
+            route.predicate.record(System.nanoTime() - start);
+            if (thrown == null && !boo) route.rejections.increment();
+        });
+    }
+    
+    /**
+     * Hands a task to this context's executor. If a recompile replaced the pool and shut the old one down
+     * after it was read, the task goes to the new pool rather than being refused, or runs here if there is no longer one.
+     */
+    private void submit(final CommandContext<S> context, final Runnable task) {
+        final ExecutorService pool = this.pool;
+        try {
+            executor(context).execute(task);
+        } catch (RejectedExecutionException ex) {
+            if (pool == this.pool || !pool.isShutdown()) throw ex;
+            if (this.pool == null) task.run();
+            else executor(context).execute(task);
+        }
+    }
+    
+    /**
+     * @return How many inputs were served from the parse cache, see {@link CommandImpl#cacheParses(int)}
+     */
+    public long getParseCacheHits() {
+        return cacheHits.sum();
+    }
+    
+    /**
+     * @return How many inputs had to be parsed while the parse cache was enabled
+     */
+    public long getParseCacheMisses() {
+        return cacheMisses.sum();
+    }
+    
+    /**
+     * @return The metrics of each route, or null unless {@link CommandImpl#recordMetrics()} was set
+     */
+    public @Nullable CommandMetrics getMetrics() {
+        return snapshot().metrics;
+    }
+    
+    /**
+     * The number of commands waiting for a thread, when dispatching through a bounded or serial pool.
+     */
+    public int getQueueDepth() {
+        if (pool instanceof BoundedExecutor bounded) return bounded.depth();
+        if (pool instanceof SerialLanes<?> lanes) return lanes.depth();
+        if (pool instanceof ThreadPoolExecutor executor) return executor.getQueue().size();
+        return 0;
+    }
+    
+    /**
+     * The executor this context is dispatched on. In serial mode this is the sender's own lane.
+     */
+    @SuppressWarnings("unchecked")
+    protected Executor executor(final CommandContext<S> context) {
+        if (pool instanceof SerialLanes<?> lanes) return ((SerialLanes<S>) lanes).lane(context.sender());
+        return pool;
+    }
+    
     public @NotNull Collection<String> getPatterns() {
-        return new ArrayList<>(patterns);
+        return new ArrayList<>(snapshot().patterns);
     }
     
     public @NotNull Map<@NotNull String, @Nullable String> getPatternDescriptions() {
-        return new HashMap<>(patternDescriptions);
+        return new HashMap<>(snapshot().descriptions);
+    }
+    
+    /**
+     * Renders one page of this command's help, in the order of {@link #getPatterns()}.
+     * Each line is the command label and a pattern, followed by " - " and its description if it has one.
+     *
+     * @param page The page, counting from zero
+     * @param size The number of lines on a page
+     * @return The lines on the page, which is empty past the last page
+     */
+    public @NotNull MagicList<String> getHelp(int page, int size) {
+        final Snapshot snapshot = snapshot();
+        return snapshot.help.page(snapshot.namespace, page, size);
+    }
+    
+    /**
+     * @param size The number of lines on a page
+     * @return How many pages {@link #getHelp(int, int)} has at this size
+     */
+    public int getHelpPages(int size) {
+        if (size < 1) throw new IllegalArgumentException("Page size must be positive.");
+        final int lines = snapshot().help.size();
+        return (lines + size - 1) / size;
     }
     
     public MagicList<String> getNextArguments(String... inputs) {
+        final ArgumentTree tree = snapshot().tree;
         if (inputs.length == 0)
             return new MagicList<>(tree.keySet()).collect(entry -> entry.getArgs(inputs.length + 1));
         String input = String.join(" ", inputs);
@@ -255,29 +546,68 @@ public abstract class Commander<S> {
         return list.collect(entry -> entry.getArgs(inputs.length + 1));
     }
     
+    /**
+     * Completes the last input, given that every input before it matches a route.
+     * Literal completions come back in sorted order, followed by those of any dynamic arguments.
+     *
+     * @param inputs The arguments typed so far, the last of which may be partial
+     * @return The distinct completions for the last input
+     */
     public MagicList<String> getNextCompletions(String... inputs) {
-        final MagicList<String> completions = new MagicList<>();
-        if (inputs.length == 0)
-            for (ArgumentEntry arguments : tree.keySet()) {
-                completions.addAll(arguments.getCompletion(inputs.length));
-            }
-        else {
-            MagicList<ArgumentEntry> list = new MagicList<>(tree.keySet());
-            for (ArgumentEntry entry : list) {
-                completions.addAll(entry.getCompletions(inputs));
-            }
-        }
-        completions.removeDuplicates();
-        return completions;
+        return snapshot().completions.complete(inputs);
+    }
+    
+    /**
+     * Suggests what the sender may have meant when the inputs match no route, such as
+     * "set home" for "sett home". Only literal arguments are corrected, by at most two edits.
+     *
+     * @param inputs The arguments that were typed
+     * @return Up to five corrected argument lines, closest first
+     */
+    public MagicList<String> getSuggestions(String... inputs) {
+        return snapshot().completions.suggest(inputs, 5);
+    }
+    
+    /**
+     * Opens a completion session for one sender, which reuses the work done for the previous
+     * line when the next one extends it. See {@link CompletionSession}.
+     */
+    public CompletionSession openCompletionSession() {
+        return new CompletionSession(this);
     }
     
+    /**
+     * Completes the last input like {@link #getNextCompletions(String...)}, querying slow argument
+     * providers in parallel on a shared completion pool, apart from the pool commands run on.
+     * Whatever has arrived when the deadline passes is returned, and the remaining providers are cancelled and interrupted.
+     *
+     * @param timeout The longest time to wait for providers
+     * @param unit    The unit of the timeout
+     * @param inputs  The arguments typed so far, the last of which may be partial
+     * @return The distinct completions that arrived in time
+     */
+    public CompletableFuture<MagicList<String>> getNextCompletionsAsync(long timeout, TimeUnit unit, String... inputs) {
+        final Snapshot snapshot = snapshot();
+        return snapshot.completions.complete(AsyncExecutors.completions(), timeout, unit, inputs);
+    }
+    
+    /**
+     * The joined arguments of the command currently running on this thread.
+     * Outside of a command action this is null; use {@link CommandContext#input()} instead.
+     */
     public String getInput() {
-        return input;
+        return input.get();
+    }
+    
+    void add(ArgumentEntry entry, CommandAction<S> action) {
+        if (building == null)
+            throw new IllegalCommandException("Arguments can only be registered while the commander is compiling!");
+        building.put(entry, action);
     }
     
     protected CommandImpl command(String namespace, String... aliases) {
         this.namespace = namespace;
-        this.aliases.addAll(aliases);
+        this.stagedAliases.addAll(aliases);
         return new CommandImpl();
     }
     
@@ -365,12 +695,40 @@ public abstract class Commander<S> {
         return top;
     }
     
+    public SubArg arg(CommandIntAction<S> action, IntArgument argument) {
+        return arg((Description) null, action, argument);
+    }
+    
+    public SubArg arg(CommandLongAction<S> action, LongArgument argument) {
+        return arg((Description) null, action, argument);
+    }
+    
+    public SubArg arg(CommandDoubleAction<S> action, DoubleArgument argument) {
+        return arg((Description) null, action, argument);
+    }
+    
+    public SubArg arg(CommandBooleanAction<S> action, BooleanArgument argument) {
+        return arg((Description) null, action, argument);
+    }
+    
+    public SubArg arg(CommandIntIntAction<S> action, IntArgument first, IntArgument second) {
+        return arg((Description) null, action, first, second);
+    }
+    
+    public SubArg arg(CommandIntDoubleAction<S> action, IntArgument first, DoubleArgument second) {
+        return arg((Description) null, action, first, second);
+    }
+    
+    public SubArg arg(CommandDoubleDoubleDoubleAction<S> action, DoubleArgument first, DoubleArgument second, DoubleArgument third) {
+        return arg((Description) null, action, first, second, third);
+    }
+    
     public @NotNull String getCommand() {
-        return namespace;
+        return snapshot.namespace;
     }
     
     public @NotNull List<String> getAliases() {
-        return aliases;
+        return snapshot.aliases;
     }
     
     interface CommandAction<S> {
@@ -415,6 +773,150 @@ public abstract class Commander<S> {
         void accept(S sender, Object[] inputs);
     }
     
+    @FunctionalInterface
+    public interface CommandIntAction<S> extends CommandBiAction<S> {
+        void accept(S sender, int value);
+        
+        @Override
+        default void accept(S sender, Object[] inputs) {
+            accept(sender, (Integer) inputs[0]);
+        }
+    }
+    
+    @FunctionalInterface
+    public interface CommandLongAction<S> extends CommandBiAction<S> {
+        void accept(S sender, long value);
+        
+        @Override
+        default void accept(S sender, Object[] inputs) {
+            accept(sender, (Long) inputs[0]);
+        }
+    }
+    
+    @FunctionalInterface
+    public interface CommandDoubleAction<S> extends CommandBiAction<S> {
+        void accept(S sender, double value);
+        
+        @Override
+        default void accept(S sender, Object[] inputs) {
+            accept(sender, (Double) inputs[0]);
+        }
+    }
+    
+    @FunctionalInterface
+    public interface CommandBooleanAction<S> extends CommandBiAction<S> {
+        void accept(S sender, boolean value);
+        
+        @Override
+        default void accept(S sender, Object[] inputs) {
+            accept(sender, (Boolean) inputs[0]);
+        }
+    }
+    
+    @FunctionalInterface
+    public interface CommandIntIntAction<S> extends CommandBiAction<S> {
+        void accept(S sender, int first, int second);
+        
+        @Override
+        default void accept(S sender, Object[] inputs) {
+            accept(sender, (Integer) inputs[0], (Integer) inputs[1]);
+        }
+    }
+    
+    @FunctionalInterface
+    public interface CommandIntDoubleAction<S> extends CommandBiAction<S> {
+        void accept(S sender, int first, double second);
+        
+        @Override
+        default void accept(S sender, Object[] inputs) {
+            accept(sender, (Integer) inputs[0], (Double) inputs[1]);
+        }
+    }
+    
+    @FunctionalInterface
+    public interface CommandDoubleDoubleDoubleAction<S> extends CommandBiAction<S> {
+        void accept(S sender, double x, double y, double z);
+        
+        @Override
+        default void accept(S sender, Object[] inputs) {
+            accept(sender, (Double) inputs[0], (Double) inputs[1], (Double) inputs[2]);
+        }
+    }
+    
+    /**
+     * An action of any shape that reads each value only when it needs it,
+     * so the values of typed arguments such as {@link IntArgument} are never boxed.
+     * Commanders generated by the annotation processor use this.
+     */
+    @FunctionalInterface
+    public interface CommandInputAction<S> extends CommandBiAction<S> {
+        void accept(S sender, Inputs inputs);
+        
+        @Override
+        default void accept(S sender, Object[] inputs) {
+            accept(sender, Inputs.of(inputs));
+        }
+    }
+    
+    /**
+     * The values of a route's non-literal arguments, in order.
+     * The typed getters read a typed argument straight from the input, and unbox any other.
+     * An optional argument that was left out gives null, or its default value, or zero.
+     */
+    public interface Inputs {
+        
+        static Inputs of(Object[] values) {
+            return new BoxedInputs(values);
+        }
+        
+        int size();
+        
+        @Nullable Object get(int index);
+        
+        int getInt(int index);
+        
+        long getLong(int index);
+        
+        double getDouble(int index);
+        
+        boolean getBoolean(int index);
+        
+    }
+    
+    private record BoxedInputs(Object[] values) implements Inputs {
+        
+        @Override
+        public int size() {
+            return values.length;
+        }
+        
+        @Override
+        public @Nullable Object get(int index) {
+            return values[index];
+        }
+        
+        @Override
+        public int getInt(int index) {
+            return values[index] instanceof Number number ? number.intValue() : 0;
+        }
+        
+        @Override
+        public long getLong(int index) {
+            return values[index] instanceof Number number ? number.longValue() : 0;
+        }
+        
+        @Override
+        public double getDouble(int index) {
+            return values[index] instanceof Number number ? number.doubleValue() : 0;
+        }
+        
+        @Override
+        public boolean getBoolean(int index) {
+            return values[index] instanceof Boolean boo && boo;
+        }
+        
+    }
+    
     private static class Description {
         protected final @Nullable String string;
         
@@ -425,24 +927,19 @@ public abstract class Commander<S> {
     
     static class ArgumentEntry extends MagicList<Argument<?>> {
         
-        final Pattern pattern;
+        private volatile Pattern pattern; // only needed by the legacy matchers, so compiled on first use
         final String args;
+        RouteMetrics metrics;
+        private final String[] usages; // the usage of every leading run of arguments, by length
         String description;
         
         {
-            StringBuilder builder = new StringBuilder();
-            MagicList<String> strings = new MagicList<>();
-            for (Argument<?> argument : this) {
-                builder.append(argument.getPattern().toString().replace("^", "").replace("$", "")).append(" ");
-                if (argument.isLiteral()) {
-                    strings.add(argument.getName());
-                } else {
-                    strings.add((argument.isRequired() ? "<" : "[") + (argument.isPlural() ? "*" : "") + argument
-                        .getName() + (argument.isFinal() ? "..." : "") + (argument.isRequired() ? ">" : "]"));
-                }
+            usages = new String[this.size() + 1];
+            usages[0] = "";
+            for (int depth = 1; depth < usages.length; depth++) {
+                usages[depth] = depth == 1 ? getArg(0) : usages[depth - 1] + " " + getArg(depth - 1);
             }
-            pattern = Pattern.compile("^" + builder.toString().trim());
-            args = String.join(" ", strings);
+            args = usages[this.size()];
         }
         
         public ArgumentEntry(Argument<?>... arguments) {
@@ -454,16 +951,7 @@ public abstract class Commander<S> {
         }
         
         public String getArgs(int depth) {
-            MagicList<String> strings = new MagicList<>();
-            for (Argument<?> argument : this.subList(0, depth)) {
-                if (argument.isLiteral()) {
-                    strings.add(argument.getName());
-                } else {
-                    strings.add((argument.isRequired() ? "<" : "[") + (argument.isPlural() ? "*" : "") + argument
-                        .getName() + (argument.isFinal() ? "..." : "") + (argument.isRequired() ? ">" : "]"));
-                }
-            }
-            return String.join(" ", strings);
+            return usages[depth];
         }
         
         public String getArg(int depth) {
@@ -517,11 +1005,16 @@ public abstract class Commander<S> {
         }
         
         Pattern getPattern() {
-            return pattern;
+            if (pattern != null) return pattern;
+            StringBuilder builder = new StringBuilder();
+            for (Argument<?> argument : this) {
+                builder.append(argument.getPattern().toString().replace("^", "").replace("$", "")).append(" ");
+            }
+            return pattern = Pattern.compile("^" + builder.toString().trim());
         }
         
         boolean matches(String input) {
-            Matcher matcher = pattern.matcher(input.trim());
+            Matcher matcher = getPattern().matcher(input.trim());
             return matcher.matches();
         }
         
@@ -545,25 +1038,6 @@ public abstract class Commander<S> {
             return reader.readRest().trim().isEmpty() ? Result.TRUE : Result.TRAILING;
         }
         
-        public Object[] compileEntry(String input) {
-            MagicList<Object> objects = new MagicList<>();
-            StringReader reader = new StringReader(input);
-            for (Argument<?> argument : this) {
-                final String segment;
-                if (argument.isFinal()) {
-                    segment = reader.readRest();
-                } else if (argument.acceptSpaces()) {
-                    segment = reader.readUntilMatchesAfter(argument.getPattern(), ' ');
-                } else {
-                    segment = reader.readUntil(' ');
-                }
-                if (!argument.isLiteral())
-                    objects.add(argument.matches(segment) ? argument.serialise(segment) : null);
-                reader.skip();
-            }
-            return objects.toArray(new Object[0]);
-        }
-        
         Collection<String> getCompletions(int position, String[] inputs) {
             List<String> list = new ArrayList<>();
             if (position < 2) {
@@ -629,7 +1103,7 @@ public abstract class Commander<S> {
         
         @Override
         public int hashCode() {
-            return Objects.hash(super.hashCode(), pattern, args, description);
+            return Objects.hash(super.hashCode(), System.identityHashCode(this), args, description); // a repeated route is kept as its own entry
         }
         
         public enum Result {
@@ -661,12 +1135,107 @@ public abstract class Commander<S> {
         }
         
         public CommandImpl allowAsyncExecution() {
-            pool = Executors.newCachedThreadPool();
+            requestedPool = new PoolRequest(List.of("cached"), Executors::newCachedThreadPool, true);
             return this;
         }
         
+        /**
+         * @param dispatcher The pool to run commands on, which this commander never shuts down
+         */
         public CommandImpl allowAsyncExecution(ExecutorService dispatcher) {
-            pool = dispatcher;
+            requestedPool = new PoolRequest(List.of(dispatcher), () -> dispatcher, false);
+            return this;
+        }
+        
+        /**
+         * Runs each asynchronous command on its own virtual thread, so commands that block
+         * on I/O do not pin a platform thread. Runtimes without virtual threads use a
+         * bounded platform pool instead.
+         */
+        public CommandImpl allowVirtualExecution() {
+            return allowVirtualExecution(AsyncExecutors.defaultPlatformThreads());
+        }
+        
+        /**
+         * @param platformThreads The size of the fallback pool on runtimes without virtual threads
+         */
+        public CommandImpl allowVirtualExecution(int platformThreads) {
+            requestedPool = new PoolRequest(List.of("virtual", platformThreads), () -> AsyncExecutors.virtual(platformThreads), true);
+            return this;
+        }
+        
+        /**
+         * Runs commands from the same sender one at a time, in the order they were dispatched.
+         * Different senders still run in parallel, on one lane per core.
+         */
+        public CommandImpl allowSerialExecution() {
+            return allowSerialExecution(SerialLanes.defaultLanes(), sender -> sender);
+        }
+        
+        /**
+         * @param lanes The number of lanes, rounded up to a power of two
+         * @param key   Picks the value senders are ordered by, e.g. a player's unique id
+         */
+        public CommandImpl allowSerialExecution(int lanes, Function<? super S, ?> key) {
+            requestedPool = new PoolRequest(List.of("serial", lanes, key), () -> new SerialLanes<>(lanes, key), true);
+            return this;
+        }
+        
+        /**
+         * Remembers the routes and values of up to {@code size} recently used inputs, so hot command lines
+         * are not parsed again. Only inputs that resolve through pure arguments are kept,
+         * and the cache is emptied whenever the commander is recompiled.
+         *
+         * @param size The maximum number of inputs to remember
+         */
+        public CommandImpl cacheParses(int size) {
+            if (size < 1) throw new IllegalCommandException("Cache size must be positive.");
+            cacheSize = size;
+            return this;
+        }
+        
+        /**
+         * Compiles this commander's routes into code of its own, defined as a hidden class whenever it compiles.
+         * With many commanders, the shared dispatch code sees too many argument types and actions for the JIT
+         * to inline them; a specialised commander's code switches on its own literals and calls its own
+         * arguments and actions directly. Commands are matched and run exactly as they would be otherwise.
+         * Compiling takes longer, and past a few thousand routes the rest are left to the shared code.
+         *
+         * @return This command, allowing for method chaining
+         */
+        public CommandImpl specialise() {
+            specialise = true;
+            return this;
+        }
+        
+        /**
+         * Records how often each route runs, fails and is refused by the predicate, and how long it takes
+         * to resolve, check and run, see {@link #getMetrics()}. Without this, dispatch does no timing at all.
+         *
+         * @return This command, allowing for method chaining
+         */
+        public CommandImpl recordMetrics() {
+            recordMetrics = true;
+            return this;
+        }
+        
+        /**
+         * Caps asynchronous execution at {@code threads} running and {@code queued} waiting commands,
+         * so a flood of commands cannot grow the pool or its queue without limit.
+         *
+         * @param overflow What to do with a command once the cap is reached
+         */
+        public CommandImpl allowBoundedExecution(int threads, int queued, Overflow overflow) {
+            requestedPool = new PoolRequest(List.of("bounded", threads, queued, overflow), () -> new BoundedExecutor(threads, queued, overflow), true);
+            return this;
+        }
+        
+        /**
+         * Runs instead of the default action when the input matches no route but is close to one,
+         * receiving the suggestions from {@link Commander#getSuggestions(String...)}.
+         */
+        public CommandImpl unknownAction(BiConsumer<S, List<String>> action) {
+            unknownAction = action;
             return this;
         }
         
@@ -682,7 +1251,7 @@ public abstract class Commander<S> {
         public CommandImpl arg(String arg, Description description, CommandSingleAction<S> action) {
             ArgumentEntry entry = new ArgumentEntry(new ArgLiteral(arg));
             if (description != null) entry.description = description.string;
-            tree.put(entry, action);
+            add(entry, action);
             return this;
         }
         
@@ -693,20 +1262,20 @@ public abstract class Commander<S> {
         public CommandImpl arg(CommandSingleAction<S> action, String arg, Description description) {
             ArgumentEntry entry = new ArgumentEntry(new ArgLiteral(arg));
             if (description != null) entry.description = description.string;
-            tree.put(entry, action);
+            add(entry, action);
             return this;
         }
         
         public CommandImpl arg(CommandSingleAction<S> action, String... args) {
             ArgumentEntry entry = new ArgumentEntry(new MagicList<>(args).collect(ArgLiteral::new));
-            tree.put(entry, action);
+            add(entry, action);
             return this;
         }
         
         public CommandImpl arg(CommandSingleAction<S> action, Description description, String... args) {
             ArgumentEntry entry = new ArgumentEntry(new MagicList<>(args).collect(ArgLiteral::new));
             if (description != null) entry.description = description.string;
-            tree.put(entry, action);
+            add(entry, action);
             return this;
         }
         
@@ -737,7 +1306,7 @@ public abstract class Commander<S> {
         public final CommandImpl arg(String arg, Description description, CommandSingleAction<S> action, SubArg... subArguments) {
             ArgumentEntry entry = new ArgumentEntry(new ArgLiteral(arg));
             if (description != null) entry.description = description.string;
-            tree.put(entry, action);
+            add(entry, action);
             MagicList<Argument<?>> list = new MagicList<>(new ArgLiteral(arg));
             for (SubArg subArg : subArguments) {
                 subArg.compile(list);
@@ -748,7 +1317,7 @@ public abstract class Commander<S> {
         @SafeVarargs
         public final CommandImpl arg(CommandSingleAction<S> action, String arg, SubArg... subArguments) {
             ArgumentEntry entry = new ArgumentEntry(new ArgLiteral(arg));
-            tree.put(entry, action);
+            add(entry, action);
             MagicList<Argument<?>> list = new MagicList<>(new ArgLiteral(arg));
             for (SubArg subArg : subArguments) {
                 subArg.compile(list);
@@ -770,7 +1339,7 @@ public abstract class Commander<S> {
         public final CommandImpl arg(CommandSingleAction<S> action, String @NotNull [] arg, Description description, SubArg... subArguments) {
             ArgumentEntry entry = new ArgumentEntry(new ArgLiteralPlural(arg));
             if (description != null) entry.description = description.string;
-            tree.put(entry, action);
+            add(entry, action);
             MagicList<Argument<?>> list = new MagicList<>(new ArgLiteralPlural(arg));
             for (SubArg subArg : subArguments) {
                 subArg.compile(list);
@@ -802,6 +1371,51 @@ public abstract class Commander<S> {
             return this;
         }
         
+        /**
+         * Adds one complete route, with its arguments in order, without building nested arguments first.
+         * Commanders generated from {@link mx.kenzie.commander.annotation.Command} are built with this.
+         *
+         * @param description The route's description, or null
+         * @param action      The action, given the values of the non-literal arguments
+         * @param arguments   The arguments of the route
+         * @return This command, allowing for method chaining
+         */
+        public final CommandImpl route(@Nullable String description, CommandBiAction<S> action, @NotNull Argument<?>... arguments) {
+            if (arguments.length == 0) throw new IllegalCommandException("A route needs at least one argument.");
+            final ArgumentEntry entry = new ArgumentEntry(arguments);
+            entry.description = description;
+            add(entry, action);
+            return this;
+        }
+        
+        public final CommandImpl arg(CommandIntAction<S> action, IntArgument argument) {
+            return arg((Description) null, action, argument);
+        }
+        
+        public final CommandImpl arg(CommandLongAction<S> action, LongArgument argument) {
+            return arg((Description) null, action, argument);
+        }
+        
+        public final CommandImpl arg(CommandDoubleAction<S> action, DoubleArgument argument) {
+            return arg((Description) null, action, argument);
+        }
+        
+        public final CommandImpl arg(CommandBooleanAction<S> action, BooleanArgument argument) {
+            return arg((Description) null, action, argument);
+        }
+        
+        public final CommandImpl arg(CommandIntIntAction<S> action, IntArgument first, IntArgument second) {
+            return arg((Description) null, action, first, second);
+        }
+        
+        public final CommandImpl arg(CommandIntDoubleAction<S> action, IntArgument first, DoubleArgument second) {
+            return arg((Description) null, action, first, second);
+        }
+        
+        public final CommandImpl arg(CommandDoubleDoubleDoubleAction<S> action, DoubleArgument first, DoubleArgument second, DoubleArgument third) {
+            return arg((Description) null, action, first, second, third);
+        }
+        
         public CommandImpl arg(Argument<?> argument, CommandBiAction<S> action) {
             return arg(null, argument, action);
         }
@@ -864,7 +1478,7 @@ public abstract class Commander<S> {
             if (action != null) {
                 ArgumentEntry entry = new ArgumentEntry(list);
                 if (description != null) entry.description = description.string;
-                tree.put(entry, action);
+                add(entry, action);
             }
             if (!children.isEmpty()) {
                 for (SubArg child : children) {
@@ -877,4 +1491,303 @@ public abstract class Commander<S> {
     class ArgumentTree extends MagicMap<ArgumentEntry, CommandAction<S>> {
     }
     
+    /**
+     * What a bounded pool does with a command when all of its threads and queue slots are taken.
+     */
+    public enum Overflow {
+        /**
+         * The new command is refused and passed to the error handler, or the failure action if there is none.
+         */
+        REJECT,
+        /**
+         * The dispatching thread runs the new command itself, which slows the producer down.
+         */
+        CALLER_RUNS,
+        /**
+         * The longest-waiting command is refused to make room for the new one.
+         */
+        DROP_OLDEST
+    }
+    
+    /**
+     * How {@link #create()} asked for its thread pool: the settings it gave, how to build a pool from them,
+     * and whether the pool is this commander's to shut down.
+     */
+    private record PoolRequest(List<?> settings, Supplier<ExecutorService> factory, boolean owned) {
+    }
+    
+    /**
+     * A parsed command, ready to run on any thread, with the metrics of its route when they are recorded.
+     * It runs the route's action, or else the unknown action with its suggestions, or else the default action,
+     * itself rather than through a lambda, so preparing a command allocates this and nothing more.
+     */
+    private static final class Prepared<S> implements Runnable {
+        private final ThreadLocal<String> inputs;
+        private final String input;
+        private final @Nullable RouteMetrics route;
+        private final S sender;
+        private final @Nullable ParseResult<S> result;
+        private final Object @Nullable [] values;
+        private final @Nullable BiConsumer<S, List<String>> unknownAction;
+        private final @Nullable List<String> suggestions;
+        private final @Nullable CommandSingleAction<S> defaultAction;
+        
+        /**
+         * @param values The values for a boxed action, or null if the result's action is typed
+         */
+        Prepared(ThreadLocal<String> inputs, String input, @Nullable RouteMetrics route, S sender, @Nullable ParseResult<S> result, Object @Nullable [] values,
+                 @Nullable BiConsumer<S, List<String>> unknownAction, @Nullable List<String> suggestions, @Nullable CommandSingleAction<S> defaultAction) {
+            this.inputs = inputs;
+            this.input = input;
+            this.route = route;
+            this.sender = sender;
+            this.result = result;
+            this.values = values;
+            this.unknownAction = unknownAction;
+            this.suggestions = suggestions;
+            this.defaultAction = defaultAction;
+        }
+        
+        @Override
+        public void run() {
+            final String previous = inputs.get();
+            inputs.set(input);
+            try {
+                if (route == null) execute();
+                else measure(route);
+            } finally {
+                if (previous == null) inputs.remove();
+                else inputs.set(previous);
+            }
+        }
+        
+        private void execute() {
+            try {
+                if (result != null) result.run(sender, values);
+                else if (unknownAction != null) unknownAction.accept(sender, suggestions);
+                else defaultAction.accept(sender);
+            } catch (Throwable ex) {
+                throw new CommandRuntimeError(ex);
+            }
+        }
+        
+        private void measure(RouteMetrics route) {
+            route.invocations.increment();
+            final long start = System.nanoTime();
+            try {
+                execute();
+            } catch (Throwable ex) {
+                route.failures.increment();
+                throw ex;
+            } finally {
+                route.action.record(System.nanoTime() - start);
+            }
+        }
+    }
+    
+    /**
+     * A single asynchronous execution, which completes its future however it ends.
+     */
+    private final class Dispatch implements Runnable, BoundedExecutor.Sheddable {
+        private final CommandContext<S> context;
+        private final Snapshot snapshot;
+        private final CompletableFuture<Void> future;
+        private final Runnable runnable;
+        private final Executor pool = Commander.this.pool;
+        
+        Dispatch(CommandContext<S> context, Snapshot snapshot, CompletableFuture<Void> future, Runnable runnable) {
+            this.context = context;
+            this.snapshot = snapshot;
+            this.future = future;
+            this.runnable = runnable;
+        }
+        
+        @Override
+        public void run() {
+            final Executor previous = RUNNING.get();
+            RUNNING.set(pool);
+            try {
+                runnable.run();
+                future.complete(null);
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            } finally {
+                RUNNING.set(previous);
+            }
+        }
+        
+        @Override
+        public void shed(RejectedExecutionException reason) {
+            try {
+                if (snapshot.error != null) snapshot.error.accept(context, reason);
+                else snapshot.failureAction.accept(context);
+            } catch (Throwable ignored) {
+            } finally {
+                future.completeExceptionally(reason);
+            }
+        }
+    }
+    
+    /**
+     * The state of one {@link #executeBatchAsync(Collection)} call, shared by its chunks.
+     */
+    private final class Batch {
+        private final List<CommandContext<S>> contexts;
+        private final Snapshot snapshot;
+        private final Runnable[] executors;
+        private final CompletableFuture<Boolean>[] permits;
+        private final boolean[] results;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        
+        @SuppressWarnings("unchecked")
+        Batch(Collection<CommandContext<S>> contexts, Snapshot snapshot) {
+            this.contexts = new ArrayList<>(contexts);
+            this.snapshot = snapshot;
+            this.executors = new Runnable[this.contexts.size()];
+            this.permits = (CompletableFuture<Boolean>[]) new CompletableFuture<?>[this.contexts.size()];
+            this.results = new boolean[this.contexts.size()];
+        }
+        
+        void run(int index) {
+            final CommandContext<S> context = contexts.get(index);
+            try {
+                if (permits[index].join()) executors[index].run();
+                else snapshot.failureAction.accept(context);
+                results[index] = true;
+            } catch (Throwable throwable) {
+                this.fail(context, throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+            }
+        }
+        
+        void shed(int index, RejectedExecutionException reason) {
+            try {
+                if (snapshot.error != null) snapshot.error.accept(contexts.get(index), reason);
+                else snapshot.failureAction.accept(contexts.get(index));
+            } catch (Throwable ignored) {
+            }
+        }
+        
+        private void fail(CommandContext<S> context, Throwable throwable) {
+            if (snapshot.error != null) try {
+                snapshot.error.accept(context, throwable);
+                return;
+            } catch (Throwable ex) {
+                throwable = ex;
+            }
+            failure.compareAndSet(null, throwable);
+        }
+        
+        boolean[] results() {
+            final Throwable throwable = failure.get();
+            if (throwable != null) throw new CommandParseError(throwable);
+            return results;
+        }
+    }
+    
+    /**
+     * A run of commands from one batch, handed to the pool as a single task.
+     */
+    private final class Chunk implements Runnable, BoundedExecutor.Sheddable {
+        private final Batch batch;
+        private final List<Integer> indices;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final Executor pool = Commander.this.pool;
+        
+        Chunk(Batch batch, List<Integer> indices) {
+            this.batch = batch;
+            this.indices = indices;
+        }
+        
+        @Override
+        public void run() {
+            final Executor previous = RUNNING.get();
+            RUNNING.set(pool);
+            try {
+                for (int index : indices) batch.run(index);
+            } finally {
+                RUNNING.set(previous);
+                future.complete(null);
+            }
+        }
+        
+        @Override
+        public void shed(RejectedExecutionException reason) {
+            try {
+                for (int index : indices) batch.shed(index, reason);
+            } finally {
+                future.complete(null);
+            }
+        }
+    }
+    
+    /**
+     * Everything {@link #compile()} produces, published as one unit, including the handlers
+     * {@link #create()} set, so a command never sees those of a recompile still in progress.
+     * Nothing in here is modified after it has been published.
+     */
+    final class Snapshot {
+        final String namespace;
+        final List<String> aliases;
+        final ArgumentTree tree;
+        final ArgumentNode<S> root;
+        final CompletionIndex completions;
+        final HelpIndex help;
+        final List<String> patterns;
+        final Map<String, @Nullable String> descriptions;
+        final @Nullable ParseCache<S> cache;
+        final @Nullable CommandMetrics metrics;
+        /**
+         * A parser for each thread, so a single command reuses its buffers rather than allocating them.
+         */
+        final ThreadLocal<ArgumentNode.Parser<S>> parsers;
+        final Function<CommandContext<S>, Boolean> predicate = Commander.this.predicate;
+        final Consumer<CommandContext<S>> failureAction = Commander.this.failureAction;
+        final CommandSingleAction<S> defaultAction = Commander.this.defaultAction;
+        final @Nullable BiConsumer<CommandContext<S>, Throwable> error = Commander.this.error;
+        final @Nullable BiConsumer<S, List<String>> unknownAction = Commander.this.unknownAction;
+        final String description = Commander.this.description;
+        final boolean lazy;
+        
+        Snapshot(String namespace, MagicStringList aliases, ArgumentTree tree, ArgumentNode<S> root, CompletionIndex completions, HelpIndex help, @Nullable ParseCache<S> cache, @Nullable CommandMetrics metrics) {
+            this.namespace = namespace;
+            this.aliases = Collections.unmodifiableList(aliases);
+            this.tree = tree;
+            this.root = root;
+            this.parsers = ThreadLocal.withInitial(root::parser);
+            this.completions = completions;
+            this.help = help;
+            this.patterns = Collections.unmodifiableList(help.patterns());
+            this.descriptions = Collections.unmodifiableMap(help.descriptions());
+            this.cache = cache;
+            this.metrics = metrics;
+            this.lazy = false;
+        }
+        
+        /**
+         * A placeholder holding only the labels, until a lazy commander compiles.
+         */
+        Snapshot(String namespace, MagicStringList aliases) {
+            this.namespace = namespace;
+            this.aliases = Collections.unmodifiableList(aliases);
+            this.tree = null;
+            this.root = null;
+            this.parsers = null;
+            this.completions = null;
+            this.help = null;
+            this.patterns = null;
+            this.descriptions = null;
+            this.cache = null;
+            this.metrics = null;
+            this.lazy = true;
+        }
+        
+        boolean matchesLabel(String label) {
+            if (namespace.equalsIgnoreCase(label)) return true;
+            for (String alias : aliases) {
+                if (alias.equalsIgnoreCase(label)) return true;
+            }
+            return false;
+        }
+    }
+    
 }
@@ -0,0 +1,93 @@
+package mx.kenzie.commander;
+
+import mx.kenzie.commander.arg.Argument;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The completions of one argument, kept for its {@link Argument#getCompletionLifetime() lifetime}.
+ * <p>
+ * The first request loads the list on the calling thread. After that, a request for an expired
+ * list returns the old one straight away and has it replaced in the background, so a slow provider
+ * never holds up a key press.
+ * <p>
+ * Each cache refreshes as its own task on the completion pool, so one slow provider holds up no other.
+ * A refresh is cancelled and interrupted at a deadline: that of the asynchronous completion that asked
+ * for it, or else the list's lifetime, after which its result would already be stale, but never under a second.
+ */
+final class CompletionCache {
+    
+    private static final String[] NONE = new String[0];
+    private static final long REFRESH_FLOOR = TimeUnit.SECONDS.toNanos(1);
+    private final Argument<?> argument;
+    private final long lifetime;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile String[] values;
+    private volatile long expires;
+    
+    CompletionCache(Argument<?> argument) {
+        this.argument = argument;
+        this.lifetime = TimeUnit.MILLISECONDS.toNanos(argument.getCompletionLifetime());
+    }
+    
+    static String[] read(Argument<?> argument) {
+        final List<String> list = argument.getCompletions();
+        return list == null ? NONE : list.toArray(NONE);
+    }
+    
+    String[] get() {
+        return get(AsyncExecutors.completions(), Math.max(lifetime, REFRESH_FLOOR));
+    }
+    
+    /**
+     * @param executor Where to refresh an expired list
+     * @param timeout  How long in nanoseconds the refresh may take before it is cancelled
+     * @return The current list, loading it here if it was never loaded
+     */
+    String[] get(ExecutorService executor, long timeout) {
+        final String[] values = this.values;
+        if (values == null) synchronized (this) {
+            if (this.values == null) load();
+            return this.values;
+        }
+        if (System.nanoTime() - expires > 0) refresh(executor, timeout);
+        return values;
+    }
+    
+    /**
+     * @return The current list, refreshing it as {@link #get(ExecutorService, long)} does if it has expired,
+     * or null if it was never loaded
+     */
+    String[] peek(ExecutorService executor, long timeout) {
+        return values == null ? null : get(executor, timeout);
+    }
+    
+    private void refresh(ExecutorService executor, long timeout) {
+        if (!refreshing.compareAndSet(false, true)) return;
+        final FutureTask<Void> task = new FutureTask<>(this::load, null) {
+            @Override
+            protected void done() {
+                refreshing.set(false);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RuntimeException ex) {
+            refreshing.set(false);
+            return;
+        }
+        CompletableFuture.delayedExecutor(timeout, TimeUnit.NANOSECONDS).execute(() -> task.cancel(true));
+    }
+    
+    private void load() {
+        final String[] values = read(argument);
+        this.expires = System.nanoTime() + lifetime;
+        this.values = values;
+    }
+    
+}
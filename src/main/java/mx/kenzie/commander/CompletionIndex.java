@@ -0,0 +1,287 @@
+package mx.kenzie.commander;
+
+import mx.kenzie.commander.arg.ArgLiteralPlural;
+import mx.kenzie.commander.arg.Argument;
+import mx.kenzie.magic.collection.MagicList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tab completions for every route, indexed when the commander compiles.
+ * <p>
+ * Routes are merged into a trie by argument position. Each node keeps the names of its literal
+ * children in a sorted array, so the completions for a typed prefix are found by binary search
+ * rather than by checking every route. Only the arguments that actually complete input,
+ * such as booleans, are asked for their completions on each call.
+ */
+final class CompletionIndex {
+    
+    private final Node root = new Node(null, null);
+    private final Map<Argument<?>, CompletionCache> caches = new IdentityHashMap<>();
+    
+    CompletionIndex(Collection<? extends List<Argument<?>>> routes) {
+        for (List<Argument<?>> route : routes) {
+            Node node = root;
+            for (Argument<?> argument : route) node = node.child(argument);
+        }
+        root.seal(caches);
+    }
+    
+    /**
+     * Completes the last of the inputs, as {@link Commander#getNextCompletions(String...)} does.
+     * Every input before it must match the route.
+     */
+    @NotNull MagicList<String> complete(String... inputs) {
+        final MagicList<String> completions = new MagicList<>();
+        final Set<String> seen = new HashSet<>();
+        if (inputs.length == 0) {
+            root.complete(null, completions, seen);
+            return completions;
+        }
+        final String last = inputs[inputs.length - 1];
+        for (Node node : frontier(inputs, inputs.length - 1)) node.complete(last, completions, seen);
+        return completions;
+    }
+    
+    /**
+     * Completes the last of the inputs like {@link #complete(String...)}, but asks every dynamic argument
+     * for its completions in parallel on the executor. Literal and already-cached completions are
+     * ready at once; when the deadline passes, the providers that have not answered are cancelled
+     * and left out.
+     */
+    @NotNull CompletableFuture<MagicList<String>> complete(ExecutorService executor, long timeout, TimeUnit unit, String... inputs) {
+        final String prefix = inputs.length == 0 ? null : inputs[inputs.length - 1];
+        final MagicList<Node> nodes = inputs.length == 0 ? new MagicList<>(root) : frontier(inputs, inputs.length - 1);
+        final MagicList<String> completions = new MagicList<>();
+        final Set<String> seen = new HashSet<>();
+        final MagicList<Node> pending = new MagicList<>();
+        for (Node node : nodes) {
+            node.completeNames(prefix, completions, seen);
+            for (Node child : node.dynamic) {
+                if (prefix == null || !child.argument.matches(prefix)) pending.add(child);
+            }
+        }
+        if (pending.isEmpty()) return CompletableFuture.completedFuture(completions);
+        final AtomicReferenceArray<String[]> arrived = new AtomicReferenceArray<>(pending.size());
+        final AtomicInteger remaining = new AtomicInteger(pending.size());
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final Future<?>[] tasks = new Future<?>[pending.size()];
+        for (int i = 0; i < pending.size(); i++) {
+            final Node child = pending.get(i);
+            final String[] ready = child.ready(executor, unit.toNanos(timeout));
+            if (ready != null) {
+                arrived.set(i, ready);
+                if (remaining.decrementAndGet() == 0) done.complete(null);
+                continue;
+            }
+            final int index = i;
+            try {
+                tasks[i] = executor.submit(() -> {
+                    try {
+                        arrived.set(index, child.load());
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) done.complete(null);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                if (remaining.decrementAndGet() == 0) done.complete(null);
+            }
+        }
+        return done.completeOnTimeout(null, timeout, unit).thenApply(ignored -> {
+            for (Future<?> task : tasks) if (task != null) task.cancel(true);
+            for (int i = 0; i < arrived.length(); i++) {
+                final String[] strings = arrived.get(i);
+                if (strings != null) for (String string : strings) Node.add(string, prefix, completions, seen);
+            }
+            return completions;
+        });
+    }
+    
+    /**
+     * Suggests corrections for an input that matches no route.
+     * <p>
+     * The inputs are matched until one fits no argument at all. That input is then looked up in
+     * the fuzzy index of the literals that could have come next, and each literal within a couple
+     * of edits of it gives a suggestion: the line with that input replaced.
+     *
+     * @param limit The most suggestions to return
+     * @return Suggested argument lines, closest first, or nothing if the inputs do not stray from the routes
+     */
+    @NotNull MagicList<String> suggest(String[] inputs, int limit) {
+        MagicList<Node> nodes = new MagicList<>(root);
+        for (int i = 0; i < inputs.length; i++) {
+            final MagicList<Node> next = step(nodes, inputs[i]);
+            if (next.isEmpty()) return suggest(nodes, inputs, i, limit);
+            nodes = next;
+        }
+        return new MagicList<>();
+    }
+    
+    private static MagicList<String> suggest(MagicList<Node> nodes, String[] inputs, int position, int limit) {
+        final String token = inputs[position];
+        final MagicList<String> suggestions = new MagicList<>();
+        if (token.isBlank()) return suggestions;
+        final String query = LiteralIndex.fold(token.trim());
+        final int max = query.length() <= 4 ? 1 : 2;
+        final Map<String, Integer> found = new HashMap<>();
+        for (Node node : nodes) {
+            if (node.fuzzy != null) node.fuzzy.search(query, max, (name, distance) -> found.merge(name, distance, Math::min));
+        }
+        final MagicList<Map.Entry<String, Integer>> ranked = new MagicList<>(found.entrySet());
+        ranked.sort(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        final String[] line = inputs.clone();
+        for (Map.Entry<String, Integer> entry : ranked) {
+            if (suggestions.size() >= limit) break;
+            line[position] = entry.getKey();
+            suggestions.add(String.join(" ", line));
+        }
+        return suggestions;
+    }
+    
+    /**
+     * @return The nodes reached by matching the first {@code length} inputs, whose children complete the next one
+     */
+    @NotNull MagicList<Node> frontier(String[] inputs, int length) {
+        MagicList<Node> nodes = new MagicList<>(root);
+        for (int i = 0; i < length && !nodes.isEmpty(); i++) nodes = step(nodes, inputs[i]);
+        return nodes;
+    }
+    
+    static @NotNull MagicList<Node> step(MagicList<Node> nodes, String token) {
+        final MagicList<Node> next = new MagicList<>();
+        for (Node node : nodes) node.match(token, next);
+        return next;
+    }
+    
+    static final class Node {
+        private static final String[] NONE = new String[0];
+        final Argument<?> argument;
+        private final String[] keys;
+        private final MagicList<Node> children = new MagicList<>();
+        private final LiteralIndex<MagicList<Node>> literals = new LiteralIndex<>();
+        private final MagicList<Node> typed = new MagicList<>();
+        private final MagicList<String> labels = new MagicList<>();
+        private String[] names = NONE;
+        private Node[] dynamic = new Node[0];
+        private String[] fixed;
+        private CompletionCache cache;
+        private BkTree fuzzy;
+        
+        private Node(Argument<?> argument, String[] keys) {
+            this.argument = argument;
+            this.keys = keys;
+            if (argument != null && argument.isLiteral()) labels.add(argument.getName());
+        }
+        
+        private Node child(Argument<?> argument) {
+            final String[] keys = ArgumentNode.isHashed(argument) ? ArgumentNode.keys(argument) : null;
+            final MagicList<Node> candidates = keys != null ? literals.get(keys[0]) : typed;
+            if (candidates != null) for (Node child : candidates) {
+                if (!ArgumentNode.shares(child.argument, child.keys, argument, keys)) continue;
+                if (argument.isLiteral() && !child.labels.contains(argument.getName())) child.labels.add(argument.getName());
+                return child;
+            }
+            final Node child = new Node(argument, keys);
+            children.add(child);
+            if (keys != null) {
+                for (String key : keys) {
+                    MagicList<Node> bucket = literals.get(key);
+                    if (bucket == null) literals.put(key, bucket = new MagicList<>());
+                    bucket.add(child);
+                }
+            } else typed.add(child);
+            return child;
+        }
+        
+        /**
+         * Static completions are read here, once. Arguments with a lifetime share one cache per instance.
+         */
+        private void seal(Map<Argument<?>, CompletionCache> caches) {
+            final TreeSet<String> sorted = new TreeSet<>();
+            final MagicList<Node> dynamic = new MagicList<>();
+            final BkTree fuzzy = new BkTree();
+            for (Node child : children) {
+                if (child.argument.isLiteral()) {
+                    sorted.addAll(child.labels);
+                    for (String label : child.labels) fuzzy.add(LiteralIndex.fold(label), label);
+                    if (child.argument instanceof ArgLiteralPlural plural)
+                        for (String alias : plural.aliases) fuzzy.add(LiteralIndex.fold(alias), alias);
+                } else {
+                    dynamic.add(child);
+                    if (child.argument.hasStaticCompletions()) child.fixed = CompletionCache.read(child.argument);
+                    else if (child.argument.getCompletionLifetime() > 0)
+                        child.cache = caches.computeIfAbsent(child.argument, CompletionCache::new);
+                }
+                child.seal(caches);
+            }
+            this.names = sorted.toArray(NONE);
+            this.dynamic = dynamic.toArray(new Node[0]);
+            this.fuzzy = fuzzy.isEmpty() ? null : fuzzy;
+        }
+        
+        private void match(String token, MagicList<Node> next) {
+            if (!literals.isEmpty()) {
+                final MagicList<Node> bucket = literals.get(token.trim());
+                if (bucket != null) for (Node child : bucket) {
+                    if (child.argument.matches(token)) next.add(child);
+                }
+            }
+            for (Node child : typed) {
+                if (child.argument.matches(token)) next.add(child);
+            }
+        }
+        
+        /**
+         * Adds the completions of this node's children that start with the prefix.
+         * A child the prefix already matches in full is not completed, and a null prefix completes everything.
+         */
+        void complete(String prefix, MagicList<String> completions, Set<String> seen) {
+            completeNames(prefix, completions, seen);
+            for (Node child : dynamic) {
+                if (prefix != null && child.argument.matches(prefix)) continue;
+                final String[] strings = child.fixed != null ? child.fixed : child.cache != null ? child.cache.get() : null;
+                if (strings != null) {
+                    for (String string : strings) add(string, prefix, completions, seen);
+                    continue;
+                }
+                final List<String> list = child.argument.getCompletions();
+                if (list != null) for (String string : list) add(string, prefix, completions, seen);
+            }
+        }
+        
+        private void completeNames(String prefix, MagicList<String> completions, Set<String> seen) {
+            if (prefix == null) {
+                for (String name : names) if (seen.add(name)) completions.add(name);
+            } else {
+                int index = Arrays.binarySearch(names, prefix);
+                if (index < 0) index = -index - 1;
+                for (; index < names.length && names[index].startsWith(prefix); index++) {
+                    final String name = names[index];
+                    if (!name.equals(prefix) && seen.add(name)) completions.add(name);
+                }
+            }
+        }
+        
+        /**
+         * @return The completions available without asking the argument, or null
+         */
+        private String[] ready(ExecutorService executor, long timeout) {
+            if (fixed != null) return fixed;
+            return cache != null ? cache.peek(executor, timeout) : null;
+        }
+        
+        private String[] load() {
+            return cache != null ? cache.get() : CompletionCache.read(argument);
+        }
+        
+        private static void add(String string, String prefix, MagicList<String> completions, Set<String> seen) {
+            if (prefix != null && !string.startsWith(prefix)) return;
+            if (seen.add(string)) completions.add(string);
+        }
+    }
+    
+}
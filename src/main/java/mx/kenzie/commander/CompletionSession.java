@@ -0,0 +1,81 @@
+package mx.kenzie.commander;
+
+import mx.kenzie.magic.collection.MagicList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Completes the line one sender is typing, remembering how far the last line got.
+ * <p>
+ * The session keeps the trie nodes reached after each finished argument of the previous line.
+ * When the next request shares those arguments, as it does while someone types, matching
+ * resumes from there and only the new tail is processed.
+ * <p>
+ * Hold one per sender, from {@link Commander#openCompletionSession()}. Sessions are not thread-safe.
+ */
+public final class CompletionSession {
+    
+    private final Commander<?> commander;
+    private final MagicList<MagicList<CompletionIndex.Node>> frontiers = new MagicList<>();
+    private final MagicList<Integer> spaces = new MagicList<>();
+    private CompletionIndex index;
+    private String line = "";
+    
+    CompletionSession(Commander<?> commander) {
+        this.commander = commander;
+    }
+    
+    /**
+     * Completes the last argument of the line, as {@link Commander#getNextCompletions(String...)} would.
+     *
+     * @param line The arguments after the command label, e.g. "set home_b"; a trailing space completes the next argument
+     * @return The distinct completions for the last argument
+     */
+    public @NotNull MagicList<String> complete(@NotNull String line) {
+        final CompletionIndex index = commander.snapshot().completions;
+        if (index != this.index) {
+            this.reset();
+            this.index = index;
+            this.frontiers.add(index.frontier(new String[0], 0));
+        }
+        final int common = common(this.line, line);
+        int depth = 0;
+        while (depth < spaces.size() && spaces.get(depth) < common) depth++;
+        while (spaces.size() > depth) spaces.remove(spaces.size() - 1);
+        while (frontiers.size() > depth + 1) frontiers.remove(frontiers.size() - 1);
+        int start = depth == 0 ? 0 : spaces.get(depth - 1) + 1;
+        for (int i = start; i < line.length(); i++) {
+            if (line.charAt(i) != ' ') continue;
+            frontiers.add(CompletionIndex.step(frontiers.get(frontiers.size() - 1), line.substring(start, i)));
+            spaces.add(i);
+            start = i + 1;
+        }
+        this.line = line;
+        final String prefix = line.substring(start);
+        final MagicList<String> completions = new MagicList<>();
+        final Set<String> seen = new HashSet<>();
+        for (CompletionIndex.Node node : frontiers.get(frontiers.size() - 1)) node.complete(prefix, completions, seen);
+        return completions;
+    }
+    
+    /**
+     * Forgets the previous line, so the next one is matched from the start.
+     */
+    public void reset() {
+        this.index = null;
+        this.line = "";
+        this.frontiers.clear();
+        this.spaces.clear();
+    }
+    
+    private static int common(String first, String second) {
+        final int length = Math.min(first.length(), second.length());
+        for (int i = 0; i < length; i++) {
+            if (first.charAt(i) != second.charAt(i)) return i;
+        }
+        return length;
+    }
+    
+}
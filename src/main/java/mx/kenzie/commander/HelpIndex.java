@@ -0,0 +1,124 @@
+package mx.kenzie.commander;
+
+import mx.kenzie.magic.collection.MagicList;
+import mx.kenzie.magic.collection.MagicMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The usage patterns and descriptions of every route, built when the commander compiles.
+ * <p>
+ * A route made only of literals is folded into the first route that extends it with arguments,
+ * so {@code give} and {@code give <item> <count>} are shown as {@code give [<item> <count>]}.
+ * Each route is split into its literal head and argument tail once, and heads are found by
+ * a case-folded hash lookup, so building this is linear in the number of routes.
+ */
+final class HelpIndex {
+    
+    private final String[] usages;
+    private final @Nullable String[] notes;
+    
+    HelpIndex(Collection<Commander.ArgumentEntry> routes) {
+        final Commander.ArgumentEntry[] entries = routes.toArray(new Commander.ArgumentEntry[0]);
+        final Map<String, Boolean> bare = new HashMap<>(); // whether a literal-only usage has been folded
+        for (Commander.ArgumentEntry entry : entries) {
+            if (isBare(entry.args)) bare.put(LiteralIndex.fold(entry.args.trim()), false);
+        }
+        final String[] merged = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            final Commander.ArgumentEntry entry = entries[i];
+            final int split = tail(entry);
+            if (split < 0) continue;
+            final String head = entry.getArgs(split).trim();
+            final String key = LiteralIndex.fold(head);
+            if (!Boolean.FALSE.equals(bare.get(key))) continue;
+            bare.put(key, true);
+            final String group = entry.args.substring(entry.getArgs(split).length()).trim();
+            merged[i] = group.indexOf('<') != -1 ? head + " [" + group + "]" : head + " " + group;
+        }
+        final List<Map.Entry<String, String>> lines = new ArrayList<>(entries.length);
+        for (int i = 0; i < entries.length; i++) {
+            final Commander.ArgumentEntry entry = entries[i];
+            if (merged[i] != null) lines.add(new AbstractMap.SimpleImmutableEntry<>(merged[i], entry.description));
+            else if (!isBare(entry.args) || !bare.get(LiteralIndex.fold(entry.args.trim())))
+                lines.add(new AbstractMap.SimpleImmutableEntry<>(entry.args, entry.description));
+        }
+        lines.sort(Map.Entry.comparingByKey());
+        this.usages = new String[lines.size()];
+        this.notes = new String[lines.size()];
+        for (int i = 0; i < usages.length; i++) {
+            usages[i] = lines.get(i).getKey();
+            notes[i] = lines.get(i).getValue();
+        }
+    }
+    
+    private static boolean isBare(String usage) {
+        return usage.indexOf('<') == -1 && usage.indexOf('[') == -1;
+    }
+    
+    /**
+     * Where the trailing run of non-literal arguments starts, if it follows at least one literal.
+     * Usages that could not be read back apart, such as names with spaces, have no tail.
+     */
+    private static int tail(Commander.ArgumentEntry entry) {
+        int split = entry.size();
+        while (split > 0 && !entry.get(split - 1).isLiteral()) {
+            if (hasSpace(entry.getArg(split - 1))) return -1;
+            split--;
+        }
+        if (split == 0 || split == entry.size()) return -1;
+        for (int i = 0; i < split; i++) {
+            final String name = entry.getArg(i);
+            if (name.isEmpty() || name.indexOf('<') != -1 || name.indexOf('[') != -1 || name.indexOf('\n') != -1)
+                return -1;
+        }
+        return split;
+    }
+    
+    private static boolean hasSpace(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (Character.isWhitespace(string.charAt(i))) return true;
+        }
+        return false;
+    }
+    
+    /**
+     * @return Every usage pattern, in sorted order
+     */
+    @NotNull MagicList<String> patterns() {
+        return new MagicList<>(usages);
+    }
+    
+    /**
+     * @return Every usage pattern with its description, which may be null
+     */
+    @NotNull MagicMap<String, @Nullable String> descriptions() {
+        final MagicMap<String, @Nullable String> map = new MagicMap<>();
+        for (int i = 0; i < usages.length; i++) map.put(usages[i], notes[i]);
+        return map;
+    }
+    
+    int size() {
+        return usages.length;
+    }
+    
+    /**
+     * Renders one page of help, each line being the label, a usage pattern and its description
+     * if it has one. Only the lines on the requested page are built.
+     */
+    @NotNull MagicList<String> page(String label, int page, int size) {
+        if (size < 1) throw new IllegalArgumentException("Page size must be positive.");
+        if (page < 0) throw new IllegalArgumentException("Page must not be negative.");
+        final MagicList<String> lines = new MagicList<>();
+        final long from = (long) page * size;
+        for (long i = from; i < Math.min(usages.length, from + size); i++) {
+            final int index = (int) i;
+            final String usage = usages[index].isEmpty() ? label : label + " " + usages[index];
+            lines.add(notes[index] == null ? usage : usage + " - " + notes[index]);
+        }
+        return lines;
+    }
+    
+}
@@ -0,0 +1,118 @@
+package mx.kenzie.commander;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in fixed log-linear buckets, without locks.
+ * <p>
+ * Each power of two of nanoseconds is split into eight equal buckets, so a bucket is never more than
+ * an eighth wider than its lower bound, from single nanoseconds up to 2<sup>41</sup> nanoseconds, about thirty-six minutes.
+ * Recording is an increment of an array slot and of two adders, so many threads can record at once.
+ * <p>
+ * Readers see each bucket as it was at some point during {@link #snapshot()};
+ * a snapshot taken while others record may be off by the few values recorded meanwhile.
+ * The buckets, the count and the sum are read in that order, and written in the reverse order,
+ * so a snapshot's count is never less than its buckets add up to, and its sum never misses a counted duration.
+ * The sum may include a few durations that were not counted yet, which can nudge the mean up while recording is busy.
+ */
+public final class LatencyHistogram {
+    
+    static final int SUB_BITS = 3, SUB = 1 << SUB_BITS, MAX_EXPONENT = 40;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder(), sum = new LongAdder();
+    
+    LatencyHistogram() {
+    }
+    
+    static int index(long nanos) {
+        if (nanos < SUB) return (int) Math.max(nanos, 0);
+        final int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        final int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB - 1);
+        return (exponent - SUB_BITS + 1) * SUB + sub;
+    }
+    
+    /**
+     * @return The least duration that falls in this bucket, in nanoseconds
+     */
+    static long lowerBound(int index) {
+        final int group = index / SUB, sub = index % SUB;
+        if (group == 0) return sub;
+        return (long) (SUB + sub) << (group - 1);
+    }
+    
+    /**
+     * @return The least duration above this bucket, in nanoseconds
+     */
+    static long upperBound(int index) {
+        final int group = index / SUB;
+        return lowerBound(index) + (group == 0 ? 1 : 1L << (group - 1));
+    }
+    
+    /**
+     * @param nanos A duration, in nanoseconds
+     */
+    public void record(long nanos) {
+        sum.add(nanos);
+        count.increment();
+        counts.incrementAndGet(index(nanos));
+    }
+    
+    public Snapshot snapshot() {
+        final long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) copy[i] = counts.get(i);
+        final long count = this.count.sum();
+        return new Snapshot(copy, count, sum.sum());
+    }
+    
+    /**
+     * The counts of a histogram at one time.
+     *
+     * @param buckets How many durations fell in each bucket
+     * @param count   How many durations were recorded
+     * @param sum     The total of the durations, in nanoseconds
+     */
+    public record Snapshot(long[] buckets, long count, long sum) {
+        
+        /**
+         * @return The mean duration in nanoseconds, or zero if there are none
+         */
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+        
+        /**
+         * Finds the bucket holding this fraction of the durations, and returns its upper bound,
+         * so the answer is never less than the true percentile and at most an eighth more.
+         *
+         * @param fraction Between zero and one, such as 0.99
+         * @return The duration in nanoseconds, or zero if there are none
+         */
+        public long percentile(double fraction) {
+            long total = 0;
+            for (long bucket : buckets) total += bucket;
+            if (total == 0) return 0;
+            final long rank = Math.max(1, (long) Math.ceil(fraction * total));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) return upperBound(i);
+            }
+            return upperBound(buckets.length - 1);
+        }
+        
+        /**
+         * @return How many durations were below this many nanoseconds, exactly when it is a power of two
+         */
+        public long countBelow(long nanos) {
+            long below = 0;
+            for (int i = 0; i < buckets.length && upperBound(i) <= nanos; i++) below += buckets[i];
+            return below;
+        }
+        
+    }
+    
+}
@@ -0,0 +1,121 @@
+package mx.kenzie.commander;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A case-insensitive open-addressing table keyed by literal names.
+ * <p>
+ * Lookups read a region of the input directly, so no token string or
+ * lower-cased copy is made when resolving a literal argument.
+ *
+ * @param <V> The value type
+ */
+final class LiteralIndex<V> {
+    
+    private String[] keys = new String[8];
+    private Object[] values = new Object[8];
+    private int size;
+    
+    LiteralIndex() {
+    }
+    
+    private LiteralIndex(LiteralIndex<V> index) {
+        this.keys = index.keys.clone();
+        this.values = index.values.clone();
+        this.size = index.size;
+    }
+    
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+    
+    static String fold(String string) {
+        final char[] chars = string.toCharArray();
+        for (int i = 0; i < chars.length; i++) chars[i] = fold(chars[i]);
+        return new String(chars);
+    }
+    
+    static int hash(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) hash = 31 * hash + fold(source.charAt(i));
+        return hash ^ (hash >>> 16);
+    }
+    
+    static boolean equals(String key, CharSequence source, int start, int end) {
+        if (key.length() != end - start) return false;
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != fold(source.charAt(start + i))) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * @return A separate copy, so it can be changed while readers use this one
+     */
+    LiteralIndex<V> copy() {
+        return new LiteralIndex<>(this);
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    @Nullable V get(@NotNull String key) {
+        return get(key, 0, key.length());
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Nullable V get(@NotNull CharSequence source, int start, int end) {
+        final int mask = keys.length - 1;
+        for (int slot = hash(source, start, end) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (equals(keys[slot], source, start, end)) return (V) values[slot];
+        }
+        return null;
+    }
+    
+    /**
+     * Passes each case-folded key and its value, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<String, V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) action.accept(keys[i], (V) values[i]);
+        }
+    }
+    
+    void put(@NotNull String key, V value) {
+        if ((size + 1) << 1 > keys.length) resize();
+        final String folded = fold(key);
+        final int mask = keys.length - 1;
+        int slot = hash(folded, 0, folded.length()) & mask;
+        for (; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot].equals(folded)) {
+                values[slot] = value;
+                return;
+            }
+        }
+        keys[slot] = folded;
+        values[slot] = value;
+        size++;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        final String[] keys = this.keys;
+        final Object[] values = this.values;
+        this.keys = new String[keys.length << 1];
+        this.values = new Object[keys.length << 1];
+        this.size = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) put(keys[i], (V) values[i]);
+        }
+    }
+    
+}
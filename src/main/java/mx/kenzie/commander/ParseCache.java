@@ -0,0 +1,72 @@
+package mx.kenzie.commander;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded, approximately least-recently-used cache of parsed command lines.
+ * <p>
+ * Only results made entirely of {@link mx.kenzie.commander.arg.Argument#isPure() pure} arguments are stored,
+ * with their values already serialised. Each compiled snapshot has its own cache,
+ * so recompiling drops every entry.
+ * <p>
+ * Lookups take no lock: they only mark the entry as used. Once the cache is over its size,
+ * a clock hand sweeps the entries, clearing the mark of each used one and evicting the first
+ * that has not been used since the hand last passed it.
+ *
+ * @param <S> The command sender type
+ */
+final class ParseCache<S> {
+    
+    private final ConcurrentHashMap<String, Entry<S>> entries;
+    private final int size;
+    private Iterator<Map.Entry<String, Entry<S>>> hand = Collections.emptyIterator();
+    
+    ParseCache(int size) {
+        if (size < 1) throw new IllegalArgumentException("Cache size must be positive.");
+        this.entries = new ConcurrentHashMap<>(Math.min(size, 1024) * 2);
+        this.size = size;
+    }
+    
+    @Nullable ParseResult<S> get(String input) {
+        final Entry<S> entry = entries.get(input);
+        if (entry == null) return null;
+        if (!entry.used) entry.used = true;
+        return entry.result;
+    }
+    
+    void put(String input, ParseResult<S> result) {
+        if (!result.isPure()) return;
+        result.values(); // serialise before the result is shared
+        if (entries.put(input, new Entry<>(result)) == null && entries.size() > size) this.evict();
+    }
+    
+    private synchronized void evict() {
+        while (entries.size() > size) {
+            if (!hand.hasNext()) hand = entries.entrySet().iterator();
+            if (!hand.hasNext()) return;
+            final Map.Entry<String, Entry<S>> next = hand.next();
+            final Entry<S> entry = next.getValue();
+            if (entry.used) entry.used = false;
+            else entries.remove(next.getKey(), entry);
+        }
+    }
+    
+    int size() {
+        return entries.size();
+    }
+    
+    private static final class Entry<S> {
+        final ParseResult<S> result;
+        volatile boolean used;
+        
+        Entry(ParseResult<S> result) {
+            this.result = result;
+        }
+    }
+    
+}
@@ -0,0 +1,217 @@
+package mx.kenzie.commander;
+
+import mx.kenzie.commander.arg.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The outcome of matching an input against the argument trie.
+ * <p>
+ * This holds the chosen route, where each of its arguments starts and ends in the input,
+ * and the serialised values of its non-literal arguments. The values are converted once,
+ * the first time they are asked for, or read one at a time through {@link Commander.Inputs}.
+ *
+ * @param <S> The command sender type
+ */
+final class ParseResult<S> implements Commander.Inputs {
+    
+    private static final Object[] EMPTY = new Object[0];
+    private final String input;
+    private final ArgumentNode<S> node;
+    private final int[] bounds;
+    private final boolean exact;
+    private boolean pure;
+    private Object[] values;
+    
+    /**
+     * @param bounds Where each argument starts and ends in the input, in pairs
+     */
+    ParseResult(String input, ArgumentNode<S> node, int[] bounds, boolean exact) {
+        this.input = input;
+        this.node = node;
+        this.bounds = bounds;
+        this.exact = exact;
+    }
+    
+    ArgumentNode<S> node() {
+        return node;
+    }
+    
+    Commander.ArgumentEntry entry() {
+        return node.entry;
+    }
+    
+    Commander.CommandAction<S> action() {
+        return node.action;
+    }
+    
+    /**
+     * @return Whether the route consumed the whole input, rather than leaving trailing text
+     */
+    boolean isExact() {
+        return exact;
+    }
+    
+    /**
+     * @return Whether only pure arguments were consulted to reach this result, so it can be reused for the same input
+     */
+    boolean isPure() {
+        return pure;
+    }
+    
+    ParseResult<S> pure(boolean pure) {
+        this.pure = pure;
+        return this;
+    }
+    
+    int start(int index) {
+        return bounds[index << 1];
+    }
+    
+    int end(int index) {
+        return bounds[(index << 1) + 1];
+    }
+    
+    @NotNull String segment(int index) {
+        return input.substring(start(index), end(index));
+    }
+    
+    /**
+     * Required arguments were already matched while the route was being chosen,
+     * so only optional ones are checked here before serialising.
+     *
+     * @return The values of every non-literal argument in the route
+     */
+    Object[] values() {
+        if (values != null) return values;
+        final int[] slots = node.slots;
+        if (slots.length == 0) return values = EMPTY;
+        final Object[] objects = new Object[slots.length];
+        for (int i = 0; i < slots.length; i++) objects[i] = this.boxed(slots[i]);
+        return values = objects;
+    }
+    
+    /**
+     * @return Whether the action takes primitive values, see {@link #run(Object, Object[])}
+     */
+    boolean isPrimitive() {
+        return node.invoker != null;
+    }
+    
+    /**
+     * Runs the route's action, through the commander's own code if it is {@link Specialiser specialised}.
+     * A typed action reads each of its values straight from the input, and receives
+     * the route's first non-literal values, in order.
+     *
+     * @param values The values for a boxed action, or null if the action is typed
+     */
+    void run(S sender, Object @Nullable [] values) throws Throwable {
+        final Specialiser.Routes routes = node.routes;
+        if (routes != null) routes.invoke(sender, this, values);
+        else if (values == null) node.invoker.invoke(sender, this);
+        else node.action.accept(sender, values);
+    }
+    
+    @Override
+    public int size() {
+        return node.slots.length;
+    }
+    
+    @Override
+    public Object get(int index) {
+        if (values != null) return values[index];
+        return this.boxed(node.slots[index]);
+    }
+    
+    @Override
+    public int getInt(int index) {
+        return this.intValue(node.slots[index]);
+    }
+    
+    @Override
+    public long getLong(int index) {
+        return this.longValue(node.slots[index]);
+    }
+    
+    @Override
+    public double getDouble(int index) {
+        return this.doubleValue(node.slots[index]);
+    }
+    
+    @Override
+    public boolean getBoolean(int index) {
+        return this.booleanValue(node.slots[index]);
+    }
+    
+    private Object boxed(int index) {
+        final Argument<?> argument = node.entry.get(index);
+        if (!argument.isRequired() && !argument.matches(input, start(index), end(index))) return null;
+        return argument.serialise(input, start(index), end(index));
+    }
+    
+    int intValue(int index) {
+        if (node.entry.get(index) instanceof IntArgument argument)
+            return argument.serialiseInt(input, start(index), end(index));
+        return boxed(index) instanceof Number number ? number.intValue() : 0;
+    }
+    
+    long longValue(int index) {
+        if (node.entry.get(index) instanceof LongArgument argument)
+            return argument.serialiseLong(input, start(index), end(index));
+        return boxed(index) instanceof Number number ? number.longValue() : 0;
+    }
+    
+    double doubleValue(int index) {
+        if (node.entry.get(index) instanceof DoubleArgument argument)
+            return argument.serialiseDouble(input, start(index), end(index));
+        return boxed(index) instanceof Number number ? number.doubleValue() : 0;
+    }
+    
+    boolean booleanValue(int index) {
+        if (node.entry.get(index) instanceof BooleanArgument argument)
+            return argument.serialiseBoolean(input, start(index), end(index));
+        return boxed(index) instanceof Boolean boo && boo;
+    }
+    
+    /**
+     * Passes a result's values to a typed action without boxing them.
+     * One is chosen for each route when it is added, so running it needs no type checks.
+     *
+     * @param <S> The command sender type
+     */
+    @FunctionalInterface
+    interface Invoker<S> {
+        
+        void invoke(S sender, ParseResult<S> result) throws Throwable;
+        
+        /**
+         * @param slots The position in the route of each non-literal argument
+         * @return The invoker for a typed action, with the positions of its values fixed,
+         * or null if the action takes boxed values
+         */
+        static <S> Invoker<S> of(Commander.CommandAction<S> action, int[] slots) {
+            final int count = slots.length;
+            if (action instanceof Commander.CommandInputAction<S> typed)
+                return (sender, result) -> typed.accept(sender, result);
+            if (count == 0) return null;
+            final int a = slots[0], b = count > 1 ? slots[1] : 0, c = count > 2 ? slots[2] : 0;
+            if (action instanceof Commander.CommandIntAction<S> typed)
+                return (sender, result) -> typed.accept(sender, result.intValue(a));
+            if (action instanceof Commander.CommandLongAction<S> typed)
+                return (sender, result) -> typed.accept(sender, result.longValue(a));
+            if (action instanceof Commander.CommandDoubleAction<S> typed)
+                return (sender, result) -> typed.accept(sender, result.doubleValue(a));
+            if (action instanceof Commander.CommandBooleanAction<S> typed)
+                return (sender, result) -> typed.accept(sender, result.booleanValue(a));
+            if (action instanceof Commander.CommandIntIntAction<S> typed && count >= 2)
+                return (sender, result) -> typed.accept(sender, result.intValue(a), result.intValue(b));
+            if (action instanceof Commander.CommandIntDoubleAction<S> typed && count >= 2)
+                return (sender, result) -> typed.accept(sender, result.intValue(a), result.doubleValue(b));
+            if (action instanceof Commander.CommandDoubleDoubleDoubleAction<S> typed && count >= 3)
+                return (sender, result) -> typed.accept(sender, result.doubleValue(a), result.doubleValue(b), result.doubleValue(c));
+            return null;
+        }
+        
+    }
+    
+}
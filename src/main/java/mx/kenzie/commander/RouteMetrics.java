@@ -0,0 +1,51 @@
+package mx.kenzie.commander;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What one route of a commander has done since metrics were turned on, see {@link Commander.CommandImpl#recordMetrics()}.
+ * <p>
+ * A route is counted each time an input resolves to it: its action either runs, and may fail,
+ * or the commander's predicate rejects it. The time spent resolving the input, checking the predicate
+ * and running the action are each kept in a {@link LatencyHistogram}.
+ */
+public final class RouteMetrics {
+    
+    final String route;
+    final LongAdder invocations = new LongAdder(), failures = new LongAdder(), rejections = new LongAdder();
+    final LatencyHistogram parse = new LatencyHistogram(), predicate = new LatencyHistogram(), action = new LatencyHistogram();
+    
+    RouteMetrics(String route) {
+        this.route = route;
+    }
+    
+    /**
+     * @return The route's usage, e.g. "box &lt;string&gt; &lt;int&gt;", or an empty string for inputs that matched no route
+     */
+    public @NotNull String getRoute() {
+        return route;
+    }
+    
+    public @NotNull Snapshot snapshot() {
+        return new Snapshot(route, invocations.sum(), failures.sum(), rejections.sum(), parse.snapshot(), predicate.snapshot(), action.snapshot());
+    }
+    
+    /**
+     * The metrics of a route at one time.
+     *
+     * @param route       The route's usage
+     * @param invocations How many times its action ran
+     * @param failures    How many times its action threw
+     * @param rejections  How many times the predicate refused it
+     * @param parse       Time spent resolving inputs to this route
+     * @param predicate   Time spent checking the predicate
+     * @param action      Time spent in the action
+     */
+    public record Snapshot(String route, long invocations, long failures, long rejections,
+                           LatencyHistogram.Snapshot parse, LatencyHistogram.Snapshot predicate,
+                           LatencyHistogram.Snapshot action) {
+    }
+    
+}
@@ -0,0 +1,99 @@
+package mx.kenzie.commander;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A fixed set of single-threaded lanes. Every sender is hashed onto one lane, so commands
+ * from the same sender run one at a time in the order they were dispatched, while
+ * different senders are spread over all lanes and run in parallel.
+ * <p>
+ * Tasks submitted without a sender, such as through {@link #execute(Runnable)}, are dealt out round-robin.
+ *
+ * @param <S> The command sender type
+ */
+final class SerialLanes<S> extends AbstractExecutorService {
+    
+    private final ThreadPoolExecutor[] lanes;
+    private final Function<? super S, ?> key;
+    private final int mask;
+    private final AtomicInteger next = new AtomicInteger();
+    
+    SerialLanes(int lanes, Function<? super S, ?> key) {
+        if (lanes < 1) throw new IllegalArgumentException("Lane count must be positive.");
+        int size = 1;
+        while (size < lanes) size <<= 1;
+        this.lanes = new ThreadPoolExecutor[size];
+        this.mask = size - 1;
+        this.key = key;
+        for (int i = 0; i < size; i++) this.lanes[i] = AsyncExecutors.serial();
+    }
+    
+    static int defaultLanes() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+    
+    /**
+     * The lane that every command from this sender is executed on.
+     */
+    Executor lane(S sender) {
+        final Object value = sender == null ? null : key.apply(sender);
+        int hash = value == null ? 0 : value.hashCode();
+        hash ^= hash >>> 16;
+        return lanes[hash & mask];
+    }
+    
+    int size() {
+        return lanes.length;
+    }
+    
+    int depth() {
+        int depth = 0;
+        for (ThreadPoolExecutor lane : lanes) depth += lane.getQueue().size();
+        return depth;
+    }
+    
+    @Override
+    public void execute(@NotNull Runnable command) {
+        lanes[next.getAndIncrement() & mask].execute(command);
+    }
+    
+    @Override
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) lane.shutdown();
+    }
+    
+    @Override
+    public @NotNull List<Runnable> shutdownNow() {
+        final List<Runnable> list = new ArrayList<>();
+        for (ThreadPoolExecutor lane : lanes) list.addAll(lane.shutdownNow());
+        return list;
+    }
+    
+    @Override
+    public boolean isShutdown() {
+        for (ThreadPoolExecutor lane : lanes) if (!lane.isShutdown()) return false;
+        return true;
+    }
+    
+    @Override
+    public boolean isTerminated() {
+        for (ThreadPoolExecutor lane : lanes) if (!lane.isTerminated()) return false;
+        return true;
+    }
+    
+    @Override
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) return false;
+        }
+        return true;
+    }
+    
+}
@@ -0,0 +1,41 @@
+package mx.kenzie.commander;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * The template of a {@link Specialiser specialised} commander's code, which is never used as it is.
+ * Each specialised commander defines a hidden copy of it, whose class data are the handles compiled
+ * from that commander's trie. Held in static final fields, they are constants, so the JIT can inline
+ * the whole of them into the copy's {@link #walk} and {@link #invoke}.
+ */
+final class SpecialisedRoutes implements Specialiser.Routes {
+    
+    private static final MethodHandle WALK, INVOKE;
+    
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WALK = MethodHandles.classDataAt(lookup, "_", MethodHandle.class, 0);
+            INVOKE = MethodHandles.classDataAt(lookup, "_", MethodHandle.class, 1);
+        } catch (IllegalAccessException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+    
+    SpecialisedRoutes() {
+    }
+    
+    @Override
+    public void walk(ArgumentNode.Search<?> search) throws Throwable {
+        WALK.invokeExact(search, 0, 0);
+    }
+    
+    @Override
+    public void invoke(Object sender, ParseResult<?> result, Object @Nullable [] values) throws Throwable {
+        INVOKE.invokeExact(sender, result, values);
+    }
+    
+}
@@ -0,0 +1,363 @@
+package mx.kenzie.commander;
+
+import mx.kenzie.commander.arg.Argument;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Compiles a commander's argument trie into code of its own.
+ * <p>
+ * The shared {@link ArgumentNode.Search search} sees the arguments and actions of every commander, so its calls to
+ * {@link Argument#scan(String, int, int)}, {@link Argument#matches(String, int, int)} and the actions are megamorphic
+ * and cannot be inlined. Here each node of one trie becomes a method handle that takes the same steps as the shared
+ * walk, with everything about the node fixed: its literal children are picked by a switch over their constant hashes,
+ * each typed child's argument is bound as a constant receiver, and each route's typed invoker or action is bound
+ * to it in a switch over the route order.
+ * <p>
+ * The handles are the class data of a hidden class defined from the {@link SpecialisedRoutes} template, where they are
+ * constants, so the JIT compiles each commander's trie into its own dispatch code. Past {@link #LIMIT} nodes or routes,
+ * the rest of a very large trie is left to the shared search and invokers.
+ */
+final class Specialiser {
+    
+    /**
+     * The most nodes, and the most routes, given code of their own.
+     */
+    static final int LIMIT = 4096;
+    /**
+     * Up to this many literal children are compared in turn, rather than switched on by their hash.
+     */
+    private static final int SMALL = 4;
+    private static final MethodType WALK = methodType(void.class, ArgumentNode.Search.class, int.class, int.class);
+    private static final MethodType TEST = WALK.changeReturnType(boolean.class);
+    private static final MethodType INVOKE = methodType(void.class, Object.class, ParseResult.class, Object[].class);
+    private static final MethodHandle NOTHING = MethodHandles.empty(WALK), FAIL = MethodHandles.empty(TEST);
+    private static final MethodHandle HIT, OPEN, CLOSE, ENTER, NEXT, ALIVE, IMPURE, INPUT, START, END, LITERAL, HASH, SHARED;
+    private static final MethodHandle SCAN, MATCHES, PATTERN, INCREMENT, BELOW, EQUAL, ROUTE, RUN, INVOKER, ACTION;
+    
+    static {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final Class<?> search = ArgumentNode.Search.class;
+        try {
+            HIT = lookup.findVirtual(search, "hit", methodType(void.class, ArgumentNode.class, int.class, int.class));
+            OPEN = lookup.findVirtual(search, "open", methodType(int.class, int.class, int.class)).asType(WALK);
+            CLOSE = lookup.findVirtual(search, "close", methodType(void.class, int.class, int.class));
+            ENTER = lookup.findVirtual(search, "enter", methodType(boolean.class, ArgumentNode.class, int.class, int.class));
+            NEXT = lookup.findGetter(search, "next", int.class);
+            ALIVE = lookup.findVirtual(search, "alive", methodType(boolean.class, int.class));
+            IMPURE = lookup.findVirtual(search, "impure", methodType(void.class));
+            INPUT = lookup.findGetter(search, "input", String.class);
+            START = lookup.findVirtual(search, "start", methodType(int.class, int.class));
+            END = lookup.findVirtual(search, "end", methodType(int.class, int.class));
+            LITERAL = lookup.findVirtual(search, "literal", methodType(boolean.class, String.class, int.class));
+            HASH = lookup.findVirtual(search, "hash", methodType(int.class, int.class));
+            SHARED = lookup.findVirtual(search, "walk", methodType(void.class, ArgumentNode.class, int.class, int.class));
+            SCAN = lookup.findVirtual(Argument.class, "scan", methodType(boolean.class, String.class, int.class, int.class));
+            MATCHES = lookup.findVirtual(Argument.class, "matches", methodType(boolean.class, String.class, int.class, int.class));
+            PATTERN = lookup.findStatic(Specialiser.class, "matches", methodType(boolean.class, Pattern.class, String.class, int.class, int.class));
+            INCREMENT = lookup.findStatic(Specialiser.class, "increment", methodType(int.class, int.class));
+            BELOW = lookup.findStatic(Specialiser.class, "below", methodType(boolean.class, int.class, int.class));
+            EQUAL = lookup.findStatic(Specialiser.class, "equal", methodType(boolean.class, int.class, int.class));
+            ROUTE = lookup.findStatic(Specialiser.class, "route", methodType(int.class, ParseResult.class));
+            RUN = lookup.findStatic(Specialiser.class, "run", INVOKE);
+            INVOKER = lookup.findVirtual(ParseResult.Invoker.class, "invoke", methodType(void.class, Object.class, ParseResult.class));
+            ACTION = lookup.findVirtual(Commander.CommandAction.class, "accept", methodType(void.class, Object.class, Object[].class));
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+    
+    private final Map<ArgumentNode<?>, MethodHandle> walks = new IdentityHashMap<>();
+    private int nodes;
+    
+    private Specialiser() {
+    }
+    
+    /**
+     * Gives a compiled trie its own code, on its root and on the node of each of its routes.
+     * Commands are matched and run exactly as they would be by the shared search.
+     */
+    static void specialise(ArgumentNode<?> root) {
+        final Specialiser specialiser = new Specialiser();
+        final MethodHandle walk = specialiser.walk(root);
+        final List<ArgumentNode<?>> routes = new ArrayList<>();
+        routes(root, routes);
+        routes.sort(Comparator.comparingInt(node -> node.order));
+        final Routes defined = define(walk, invoke(routes));
+        root.routes = defined;
+        for (ArgumentNode<?> node : routes) node.routes = defined;
+    }
+    
+    private static void routes(ArgumentNode<?> node, List<ArgumentNode<?>> routes) {
+        if (node.isTerminal()) routes.add(node);
+        for (ArgumentNode<?> child : node.children) routes(child, routes);
+    }
+    
+    /**
+     * @return A copy of the template with these handles as its constants,
+     * or an ordinary holder of them if hidden classes cannot be defined
+     */
+    private static Routes define(MethodHandle walk, MethodHandle invoke) {
+        final byte[] template = Template.BYTES;
+        if (template != null) try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup()
+                .defineHiddenClassWithClassData(template, List.of(walk, invoke), true);
+            return (Routes) lookup.findConstructor(lookup.lookupClass(), methodType(void.class)).invoke();
+        } catch (Throwable ignored) {
+        }
+        return new Handles(walk, invoke);
+    }
+    
+    /**
+     * The steps of {@link ArgumentNode.Search#walk(ArgumentNode, int, int)} for this node:
+     * keep its route, start the next argument, then try its literal children and its typed children in order.
+     */
+    private <S> MethodHandle walk(ArgumentNode<S> node) {
+        final MethodHandle known = walks.get(node);
+        if (known != null) return known;
+        final MethodHandle walk;
+        if (++nodes > LIMIT) walk = MethodHandles.insertArguments(SHARED, 1, node);
+        else {
+            final List<MethodHandle> steps = new ArrayList<>();
+            if (node.isTerminal()) steps.add(MethodHandles.insertArguments(HIT, 1, node));
+            if (!node.children.isEmpty()) {
+                steps.add(OPEN);
+                if (!node.literals.isEmpty()) steps.add(this.literals(node));
+                for (ArgumentNode<S> child : node.typed) steps.add(this.typed(child));
+            }
+            walk = sequence(steps, 0, steps.size());
+        }
+        walks.put(node, walk);
+        return walk;
+    }
+    
+    /**
+     * Compares the token with each literal in turn when there are few of them, otherwise
+     * switches on its hash through a balanced tree of constant comparisons.
+     */
+    private <S> MethodHandle literals(ArgumentNode<S> node) {
+        final List<String> keys = new ArrayList<>();
+        final List<MethodHandle> buckets = new ArrayList<>();
+        node.literals.forEach((key, bucket) -> {
+            keys.add(key);
+            buckets.add(this.bucket(bucket));
+        });
+        if (keys.size() <= SMALL) {
+            MethodHandle handle = NOTHING;
+            for (int i = keys.size() - 1; i >= 0; i--) handle = MethodHandles.guardWithTest(literal(keys.get(i)), buckets.get(i), handle);
+            return handle;
+        }
+        final Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        final int[] hashes = new int[order.length];
+        for (int i = 0; i < order.length; i++) hashes[i] = LiteralIndex.hash(keys.get(i), 0, keys.get(i).length());
+        Arrays.sort(order, Comparator.comparingInt(i -> hashes[i]));
+        final int[] sorted = new int[order.length];
+        final String[] names = new String[order.length];
+        final MethodHandle[] handles = new MethodHandle[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = hashes[order[i]];
+            names[i] = keys.get(order[i]);
+            handles[i] = buckets.get(order[i]);
+        }
+        return MethodHandles.foldArguments(table(sorted, names, handles, 0, order.length), MethodHandles.dropArguments(HASH, 1, int.class));
+    }
+    
+    /**
+     * @return A switch taking the token's hash first, over literals sorted by their hashes
+     */
+    private static MethodHandle table(int[] hashes, String[] keys, MethodHandle[] buckets, int from, int to) {
+        if (hashes[from] == hashes[to - 1]) {
+            MethodHandle handle = NOTHING;
+            for (int i = to - 1; i >= from; i--) handle = MethodHandles.guardWithTest(literal(keys[i]), buckets[i], handle);
+            return MethodHandles.dropArguments(handle, 0, int.class);
+        }
+        int middle = (from + to) >>> 1;
+        while (middle < to && hashes[middle - 1] == hashes[middle]) middle++;
+        if (middle == to) {
+            middle = (from + to) >>> 1;
+            while (hashes[middle - 1] == hashes[middle]) middle--;
+        }
+        return MethodHandles.guardWithTest(MethodHandles.insertArguments(BELOW, 1, hashes[middle]),
+            table(hashes, keys, buckets, from, middle), table(hashes, keys, buckets, middle, to));
+    }
+    
+    private static MethodHandle literal(String key) {
+        return MethodHandles.dropArguments(MethodHandles.insertArguments(LITERAL, 1, key), 1, int.class);
+    }
+    
+    /**
+     * Ends the argument with the literal's token, then walks each child sharing the literal.
+     */
+    private <S> MethodHandle bucket(List<ArgumentNode<S>> children) {
+        final List<MethodHandle> steps = new ArrayList<>();
+        steps.add(CLOSE);
+        for (ArgumentNode<S> child : children) steps.add(alive(child, step(this.walk(child))));
+        return sequence(steps, 0, steps.size());
+    }
+    
+    /**
+     * A required argument taking a single token is checked inline, through its own scanner and matcher.
+     * Anything else is spanned by {@link ArgumentNode.Search#enter(ArgumentNode, int, int)}, as in the shared walk.
+     */
+    private <S> MethodHandle typed(ArgumentNode<S> child) {
+        final MethodHandle walk = this.walk(child);
+        final Argument<?> argument = child.argument;
+        final MethodHandle enter;
+        if (argument.isRequired() && !argument.isFinal() && !argument.acceptSpaces()) {
+            final MethodHandle scan = child.pattern != null ? MethodHandles.insertArguments(PATTERN, 0, child.pattern) : SCAN.bindTo(argument);
+            MethodHandle test = MethodHandles.guardWithTest(region(scan), region(MATCHES.bindTo(argument)), FAIL);
+            if (!argument.isPure()) test = MethodHandles.foldArguments(test, IMPURE);
+            enter = MethodHandles.guardWithTest(test, MethodHandles.foldArguments(step(walk), CLOSE), NOTHING);
+        } else {
+            final MethodHandle next = MethodHandles.collectArguments(MethodHandles.filterArguments(walk, 1, INCREMENT), 2, NEXT);
+            enter = MethodHandles.guardWithTest(MethodHandles.insertArguments(ENTER, 1, child), MethodHandles.permuteArguments(next, WALK, 0, 1, 0), NOTHING);
+        }
+        return alive(child, enter);
+    }
+    
+    /**
+     * Skips a child when none of its routes could beat the best one found so far.
+     */
+    private static MethodHandle alive(ArgumentNode<?> child, MethodHandle walk) {
+        return MethodHandles.guardWithTest(MethodHandles.insertArguments(ALIVE, 1, child.minimum), walk, NOTHING);
+    }
+    
+    /**
+     * @return The walk, one argument deeper and one token on
+     */
+    private static MethodHandle step(MethodHandle walk) {
+        return MethodHandles.filterArguments(walk, 1, INCREMENT, INCREMENT);
+    }
+    
+    /**
+     * Adapts a check of a region of the input to take the search, depth and token, checking the token's region.
+     */
+    private static MethodHandle region(MethodHandle check) {
+        MethodHandle handle = MethodHandles.filterArguments(check, 0, INPUT);
+        handle = MethodHandles.collectArguments(handle, 1, START);
+        handle = MethodHandles.collectArguments(handle, 3, END);
+        return MethodHandles.permuteArguments(handle, TEST, 0, 0, 2, 0, 2);
+    }
+    
+    /**
+     * Runs the steps in order, nested as a balanced tree so that a wide node cannot make them deep.
+     */
+    private static MethodHandle sequence(List<MethodHandle> steps, int from, int to) {
+        if (from == to) return NOTHING;
+        if (to - from == 1) return steps.get(from);
+        final int middle = (from + to) >>> 1;
+        return MethodHandles.foldArguments(sequence(steps, middle, to), sequence(steps, from, middle));
+    }
+    
+    /**
+     * Switches on the route's order through a balanced tree of constant comparisons,
+     * to that route's typed invoker or action.
+     */
+    private static MethodHandle invoke(List<ArgumentNode<?>> routes) {
+        final int count = Math.min(routes.size(), LIMIT);
+        if (count == 0) return RUN;
+        return MethodHandles.foldArguments(table(routes, 0, count), MethodHandles.dropArguments(ROUTE, 0, Object.class));
+    }
+    
+    private static MethodHandle table(List<ArgumentNode<?>> routes, int from, int to) {
+        if (to - from == 1) {
+            final ArgumentNode<?> node = routes.get(from);
+            return MethodHandles.guardWithTest(MethodHandles.insertArguments(EQUAL, 1, node.order),
+                MethodHandles.dropArguments(action(node), 0, int.class), MethodHandles.dropArguments(RUN, 0, int.class));
+        }
+        final int middle = (from + to) >>> 1;
+        return MethodHandles.guardWithTest(MethodHandles.insertArguments(BELOW, 1, routes.get(middle).order),
+            table(routes, from, middle), table(routes, middle, to));
+    }
+    
+    /**
+     * @return The route's typed invoker or its action, bound as a constant
+     */
+    private static MethodHandle action(ArgumentNode<?> node) {
+        if (node.invoker != null) return MethodHandles.dropArguments(INVOKER.bindTo(node.invoker), 2, Object[].class);
+        return MethodHandles.dropArguments(ACTION.bindTo(node.action), 1, ParseResult.class);
+    }
+    
+    private static boolean matches(Pattern pattern, String input, int start, int end) {
+        return pattern.matcher(input).region(start, end).matches();
+    }
+    
+    private static int increment(int value) {
+        return value + 1;
+    }
+    
+    private static boolean below(int value, int pivot) {
+        return value < pivot;
+    }
+    
+    private static boolean equal(int value, int constant) {
+        return value == constant;
+    }
+    
+    private static int route(ParseResult<?> result) {
+        return result.node().order;
+    }
+    
+    /**
+     * Runs a route without code of its own, as {@link ParseResult#run(Object, Object[])} would.
+     */
+    @SuppressWarnings("unchecked")
+    private static void run(Object sender, ParseResult<Object> result, Object @Nullable [] values) throws Throwable {
+        final ArgumentNode<Object> node = result.node();
+        if (values == null) node.invoker.invoke(sender, result);
+        else node.action.accept(sender, values);
+    }
+    
+    /**
+     * One commander's code for walking its trie and running its routes.
+     */
+    interface Routes {
+        
+        void walk(ArgumentNode.Search<?> search) throws Throwable;
+        
+        /**
+         * @param values The values for a boxed action, or null if the action is typed
+         */
+        void invoke(Object sender, ParseResult<?> result, Object @Nullable [] values) throws Throwable;
+        
+    }
+    
+    private record Handles(MethodHandle walker, MethodHandle invoker) implements Routes {
+        
+        @Override
+        public void walk(ArgumentNode.Search<?> search) throws Throwable {
+            walker.invokeExact(search, 0, 0);
+        }
+        
+        @Override
+        public void invoke(Object sender, ParseResult<?> result, Object @Nullable [] values) throws Throwable {
+            invoker.invokeExact(sender, result, values);
+        }
+        
+    }
+    
+    private static final class Template {
+        static final byte[] BYTES;
+        
+        static {
+            byte[] bytes;
+            try (InputStream stream = Specialiser.class.getResourceAsStream("SpecialisedRoutes.class")) {
+                bytes = stream != null ? stream.readAllBytes() : null;
+            } catch (IOException ex) {
+                bytes = null;
+            }
+            BYTES = bytes;
+        }
+    }
+    
+}
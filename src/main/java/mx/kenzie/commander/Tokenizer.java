@@ -0,0 +1,97 @@
+package mx.kenzie.commander;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Splits a command line on single spaces without copying it.
+ * <p>
+ * The line is scanned once into pairs of start and end offsets, so arguments can be checked
+ * in place with {@link mx.kenzie.commander.arg.Argument#matches(String, int, int)}.
+ * Consecutive spaces produce empty tokens, exactly as {@code String.split(" ")} would.
+ */
+final class Tokenizer {
+    
+    String source;
+    private int[] offsets = new int[8];
+    private int count;
+    private int limit;
+    
+    Tokenizer(@NotNull String source) {
+        this(source, 0, source.length());
+    }
+    
+    Tokenizer(@NotNull String source, int from, int to) {
+        this.reset(source, from, to);
+    }
+    
+    /**
+     * Re-reads this tokenizer over a new line, keeping its offset buffer when it is large enough.
+     * This lets a batch of lines be tokenised without allocating per line.
+     */
+    Tokenizer reset(@NotNull String source, int from, int to) {
+        this.source = source;
+        this.limit = to;
+        if (from >= to) {
+            this.count = 0;
+            return this;
+        }
+        int count = 1;
+        for (int i = from; i < to; i++) if (source.charAt(i) == ' ') count++;
+        if (offsets.length < count << 1) offsets = new int[count << 1];
+        final int[] offsets = this.offsets;
+        int token = 0, start = from;
+        for (int i = from; i < to; i++) {
+            if (source.charAt(i) != ' ') continue;
+            offsets[token++] = start;
+            offsets[token++] = i;
+            start = i + 1;
+        }
+        offsets[token++] = start;
+        offsets[token] = to;
+        this.count = count;
+        return this;
+    }
+    
+    Tokenizer reset(@NotNull String source) {
+        return reset(source, 0, source.length());
+    }
+    
+    int count() {
+        return count;
+    }
+    
+    int length() {
+        return limit;
+    }
+    
+    /**
+     * @return The start of this token, or the end of the line if there are no more tokens
+     */
+    int start(int token) {
+        if (token >= count()) return limit;
+        return offsets[token << 1];
+    }
+    
+    int end(int token) {
+        if (token >= count()) return limit;
+        return offsets[(token << 1) + 1];
+    }
+    
+    boolean isBlank(int from) {
+        for (int i = start(from); i < limit; i++) {
+            if (!Character.isWhitespace(source.charAt(i))) return false;
+        }
+        return true;
+    }
+    
+    String token(int token) {
+        return source.substring(start(token), end(token));
+    }
+    
+    String[] tokens() {
+        final String[] strings = new String[count()];
+        for (int i = 0; i < strings.length; i++) strings[i] = token(i);
+        return strings;
+    }
+    
+}
@@ -0,0 +1,25 @@
+package mx.kenzie.commander.annotation;
+
+import mx.kenzie.commander.arg.Argument;
+
+import java.lang.annotation.*;
+
+/**
+ * Gives a parameter of a {@link Command} method its own argument class, such as one that looks up players.
+ * <p>
+ * The matching input in the route is written without a type, as {@code <name>}.
+ * The class needs a constructor without parameters, and is created once for each route that uses it.
+ * This is only read by {@link CommandScanner}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Arg {
+    
+    /**
+     * @return The argument class
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends Argument> value();
+    
+}
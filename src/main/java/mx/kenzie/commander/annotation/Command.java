@@ -0,0 +1,33 @@
+package mx.kenzie.commander.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a method as the action of one route.
+ * <p>
+ * The value is the command label followed by the route's arguments, such as
+ * {@code "warp set <name:string>"}. Plain words are literals, and {@code a|b} accepts either.
+ * Input arguments are written {@code <name:type>}, where the type is one of
+ * {@code string}, {@code string...} (the rest of the input), {@code int}, {@code long},
+ * {@code double} or {@code boolean}.
+ * <p>
+ * The first parameter of the method is the sender, followed by one parameter for each input argument.
+ * The {@code commander-processor} annotation processor turns every label into a generated
+ * {@link mx.kenzie.commander.Commander} at build time, or {@link CommandScanner} builds them at runtime.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Command {
+    
+    /**
+     * @return The command label and the route's arguments
+     */
+    String value();
+    
+    /**
+     * @return The route's description, shown in help
+     */
+    String description() default "";
+    
+}
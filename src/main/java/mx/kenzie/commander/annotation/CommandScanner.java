@@ -0,0 +1,449 @@
+package mx.kenzie.commander.annotation;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.*;
+import mx.kenzie.commander.exception.CommandRuntimeError;
+import mx.kenzie.commander.exception.IllegalCommandException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Builds commanders from {@link Command} methods at runtime, for when the
+ * {@code commander-processor} annotation processor is not part of the build.
+ * <p>
+ * Routes are written as for the processor. An input may also be written {@code <name>} without a type,
+ * when it is given by an {@link Arg} on its parameter or can be told from the parameter's type.
+ * <p>
+ * Each method is bound once, through {@link LambdaMetafactory}, so calling a route costs the same as
+ * calling a lambda rather than going through {@link Method#invoke(Object, Object...)}.
+ * Mistakes in routes are thrown as {@link IllegalCommandException}s while scanning.
+ * <p>
+ * The commanders are lazy, so nothing is compiled until each one is first used.
+ */
+public final class CommandScanner {
+    
+    private static final Class<?>[] INVOKERS = {Invoker0.class, Invoker1.class, Invoker2.class, Invoker3.class, Invoker4.class};
+    
+    private CommandScanner() {
+    }
+    
+    /**
+     * Builds a commander for each command label used by the {@link Command} methods of the target's class.
+     *
+     * @param sender The command sender type, which the first parameter of each method must accept
+     * @param target The instance to call the methods on
+     * @return One commander for each label
+     */
+    public static <S> @NotNull List<Commander<S>> scan(@NotNull Class<S> sender, @NotNull Object target) {
+        return scan(MethodHandles.lookup(), sender, target.getClass(), target);
+    }
+    
+    /**
+     * Builds a commander for each command label used by the {@link Command} methods of a class,
+     * which must all be static.
+     *
+     * @param sender The command sender type, which the first parameter of each method must accept
+     * @param owner  The class declaring the methods
+     * @return One commander for each label
+     */
+    public static <S> @NotNull List<Commander<S>> scanStatic(@NotNull Class<S> sender, @NotNull Class<?> owner) {
+        return scan(MethodHandles.lookup(), sender, owner, null);
+    }
+    
+    /**
+     * Builds a commander for each command label used by the {@link Command} methods of a class.
+     * The lookup is used to reach the methods, for modules that do not open the owner's package to this one.
+     *
+     * @param lookup A lookup with private access to the owner, usually {@link MethodHandles#lookup()} in the owner
+     * @param sender The command sender type, which the first parameter of each method must accept
+     * @param owner  The class declaring the methods
+     * @param target The instance to call the methods on, or null if they are all static
+     * @return One commander for each label
+     */
+    public static <S> @NotNull List<Commander<S>> scan(@NotNull MethodHandles.Lookup lookup, @NotNull Class<S> sender, @NotNull Class<?> owner, @Nullable Object target) {
+        final MethodHandles.Lookup access;
+        try {
+            access = MethodHandles.privateLookupIn(owner, lookup);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalCommandException("Unable to reach the methods of " + owner.getName() + ": " + ex.getMessage());
+        }
+        final List<Route> routes = new ArrayList<>();
+        for (Method method : owner.getDeclaredMethods()) {
+            final Command command = method.getAnnotation(Command.class);
+            if (command != null) routes.add(read(method, command, sender, target));
+        }
+        routes.sort(null);
+        final Map<String, Group<S>> groups = new LinkedHashMap<>();
+        for (Route route : routes) {
+            final Group<S> group = groups.computeIfAbsent(route.label, Group::new);
+            final Route previous = group.seen.putIfAbsent(route.key(), route);
+            if (previous != null)
+                throw new IllegalCommandException(route.method + ": This route is the same as " + previous.method.getName() + "'s");
+            for (String alias : route.aliases) if (!group.aliases.contains(alias)) group.aliases.add(alias);
+            group.routes.add(new Bound<>(route.description, group.arguments(route), bind(access, route.method, target)));
+        }
+        final List<Commander<S>> commanders = new ArrayList<>();
+        for (Group<S> group : groups.values()) commanders.add(new Scanned<>(group));
+        return commanders;
+    }
+    
+    /**
+     * Parses one method's route and matches its parameters to the input arguments.
+     */
+    private static Route read(Method method, Command command, Class<?> sender, @Nullable Object target) {
+        final String[] parts = command.value().trim().split("\\s+");
+        if (parts[0].isEmpty() || !parts[0].matches("[\\w-]+(\\|[\\w-]+)*"))
+            throw error(method, "The route must start with a command label: '" + command.value() + "'");
+        final String[] labels = parts[0].toLowerCase(Locale.ROOT).split("\\|");
+        final Parameter[] parameters = method.getParameters();
+        final List<Token> tokens = new ArrayList<>();
+        int index = 1;
+        for (int i = 1; i < parts.length; i++) {
+            final String part = parts[i];
+            if (!part.startsWith("<")) {
+                if (!part.matches("[^<>\\[\\]|]+(\\|[^<>\\[\\]|]+)*"))
+                    throw error(method, "Not a valid literal: '" + part + "'");
+                tokens.add(new Token(part.split("\\|"), null, part));
+                continue;
+            }
+            if (!part.endsWith(">") || part.length() < 3)
+                throw error(method, "Input arguments are written <name:type> or <name>, not '" + part + "'");
+            if (index >= parameters.length)
+                throw error(method, "There is no parameter for '" + part + "'");
+            final Parameter parameter = parameters[index++];
+            final int colon = part.indexOf(':');
+            final String name = part.substring(1, colon < 0 ? part.length() - 1 : colon);
+            final Input input;
+            if (colon < 0) input = Input.of(parameter);
+            else {
+                if (parameter.isAnnotationPresent(Arg.class))
+                    throw error(method, "'" + part + "' has a type, so its parameter cannot also have an @Arg");
+                input = Kind.of(part.substring(colon + 1, part.length() - 1));
+            }
+            if (input == null)
+                throw error(method, "Unknown argument type in '" + part + "', expected one of " + Kind.names() + ", or an @Arg on its parameter");
+            if (input.rest() && i < parts.length - 1)
+                throw error(method, "'" + part + "' takes the rest of the input, so it must come last");
+            final Class<?> type = input.create().getType();
+            if (!box(parameter.getType()).isAssignableFrom(type))
+                throw error(method, part + " gives a " + type.getName() + ", which cannot be passed as " + parameter.getType().getName());
+            tokens.add(new Token(null, input, name));
+        }
+        if (parameters.length == 0 || parameters[0].getType().isPrimitive() || !parameters[0].getType().isAssignableFrom(sender))
+            throw error(method, "The first parameter is the sender, which must accept a " + sender.getName());
+        if (parameters.length != index)
+            throw error(method, "Expected the sender and " + (index - 1) + " argument parameter(s), found " + parameters.length + " parameter(s)");
+        for (Class<?> thrown : method.getExceptionTypes()) {
+            if (!RuntimeException.class.isAssignableFrom(thrown) && !Error.class.isAssignableFrom(thrown))
+                throw error(method, "A command method cannot throw checked exceptions, such as " + thrown.getName());
+        }
+        if (!Modifier.isStatic(method.getModifiers()) && target == null)
+            throw error(method, "This method is not static, so the commands need an instance to call it on");
+        final String description = command.description().isEmpty() ? null : command.description();
+        return new Route(method, labels[0], Arrays.copyOfRange(labels, 1, labels.length), tokens, description);
+    }
+    
+    /**
+     * Binds a method to an {@link Invoker0} or its siblings, with the instance captured.
+     * Methods with more inputs than those take are called through a spreading {@link MethodHandle}.
+     */
+    private static <S> Commander.CommandBiAction<S> bind(MethodHandles.Lookup access, Method method, @Nullable Object target) {
+        final int inputs = method.getParameterCount() - 1;
+        final boolean instance = !Modifier.isStatic(method.getModifiers());
+        try {
+            final MethodHandle handle = access.unreflect(method);
+            if (inputs >= INVOKERS.length) {
+                final MethodHandle spread = (instance ? handle.bindTo(target) : handle).asSpreader(Object[].class, inputs)
+                    .asType(MethodType.methodType(void.class, Object.class, Object[].class));
+                return (sender, values) -> {
+                    try {
+                        spread.invokeExact((Object) sender, values);
+                    } catch (RuntimeException | Error ex) {
+                        throw ex;
+                    } catch (Throwable ex) {
+                        throw new CommandRuntimeError(ex);
+                    }
+                };
+            }
+            final Class<?> invoker = INVOKERS[inputs];
+            final Class<?>[] parameters = method.getParameterTypes();
+            for (int i = 0; i < parameters.length; i++) parameters[i] = box(parameters[i]);
+            final CallSite site = LambdaMetafactory.metafactory(access, "invoke",
+                instance ? MethodType.methodType(invoker, method.getDeclaringClass()) : MethodType.methodType(invoker),
+                MethodType.genericMethodType(inputs + 1).changeReturnType(void.class),
+                handle, MethodType.methodType(void.class, parameters));
+            final Object bound = instance ? site.getTarget().invoke(target) : site.getTarget().invoke();
+            return switch (inputs) {
+                case 0 -> {
+                    final Invoker0 call = (Invoker0) bound;
+                    yield (sender, values) -> call.invoke(sender);
+                }
+                case 1 -> {
+                    final Invoker1 call = (Invoker1) bound;
+                    yield (sender, values) -> call.invoke(sender, values[0]);
+                }
+                case 2 -> {
+                    final Invoker2 call = (Invoker2) bound;
+                    yield (sender, values) -> call.invoke(sender, values[0], values[1]);
+                }
+                case 3 -> {
+                    final Invoker3 call = (Invoker3) bound;
+                    yield (sender, values) -> call.invoke(sender, values[0], values[1], values[2]);
+                }
+                default -> {
+                    final Invoker4 call = (Invoker4) bound;
+                    yield (sender, values) -> call.invoke(sender, values[0], values[1], values[2], values[3]);
+                }
+            };
+        } catch (Throwable ex) {
+            throw error(method, "Unable to bind this method: " + ex);
+        }
+    }
+    
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) return type;
+        return MethodType.methodType(type).wrap().returnType();
+    }
+    
+    private static IllegalCommandException error(Method method, String message) {
+        return new IllegalCommandException(method + ": " + message);
+    }
+    
+    /**
+     * Implemented by bound methods with no inputs.
+     * The invokers are public only so that the classes bound in other packages can implement them.
+     */
+    @FunctionalInterface
+    public interface Invoker0 {
+        void invoke(Object sender);
+    }
+    
+    @FunctionalInterface
+    public interface Invoker1 {
+        void invoke(Object sender, Object first);
+    }
+    
+    @FunctionalInterface
+    public interface Invoker2 {
+        void invoke(Object sender, Object first, Object second);
+    }
+    
+    @FunctionalInterface
+    public interface Invoker3 {
+        void invoke(Object sender, Object first, Object second, Object third);
+    }
+    
+    @FunctionalInterface
+    public interface Invoker4 {
+        void invoke(Object sender, Object first, Object second, Object third, Object fourth);
+    }
+    
+    /**
+     * Where the argument for an input comes from.
+     */
+    private interface Input {
+        
+        /**
+         * An {@link Arg} on the parameter, or else the built-in argument for its type.
+         */
+        static @Nullable Input of(Parameter parameter) {
+            final Arg arg = parameter.getAnnotation(Arg.class);
+            if (arg == null) return Kind.of(box(parameter.getType()));
+            final Constructor<?> constructor;
+            try {
+                constructor = arg.value().getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                throw new IllegalCommandException(arg.value().getName() + " needs a constructor without parameters for @Arg");
+            }
+            return new Custom(constructor);
+        }
+        
+        Argument<?> create();
+        
+        String key();
+        
+        default boolean rest() {
+            return false;
+        }
+        
+    }
+    
+    record Custom(Constructor<?> constructor) implements Input {
+        
+        @Override
+        public Argument<?> create() {
+            try {
+                return (Argument<?>) constructor.newInstance();
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalCommandException("Unable to create " + constructor.getDeclaringClass().getName() + ": " + ex);
+            }
+        }
+        
+        @Override
+        public String key() {
+            return constructor.getDeclaringClass().getName();
+        }
+        
+    }
+    
+    /**
+     * The input argument types a route can name, as for the annotation processor.
+     */
+    enum Kind implements Input {
+        STRING("string", String.class, ArgString::new),
+        REST("string...", null, ArgStringFinal::new),
+        INT("int", Integer.class, ArgInt::new),
+        LONG("long", Long.class, ArgLong::new),
+        DOUBLE("double", Double.class, ArgDouble::new),
+        BOOLEAN("boolean", Boolean.class, ArgBool::new);
+        
+        final String name;
+        final @Nullable Class<?> type;
+        final Supplier<Argument<?>> factory;
+        
+        Kind(String name, @Nullable Class<?> type, Supplier<Argument<?>> factory) {
+            this.name = name;
+            this.type = type;
+            this.factory = factory;
+        }
+        
+        static @Nullable Kind of(String name) {
+            for (Kind kind : values()) if (kind.name.equals(name)) return kind;
+            return null;
+        }
+        
+        static @Nullable Kind of(Class<?> type) {
+            for (Kind kind : values()) if (kind.type == type) return kind;
+            return null;
+        }
+        
+        static String names() {
+            final StringJoiner joiner = new StringJoiner(", ");
+            for (Kind kind : values()) joiner.add(kind.name);
+            return joiner.toString();
+        }
+        
+        @Override
+        public Argument<?> create() {
+            return factory.get();
+        }
+        
+        @Override
+        public String key() {
+            return name;
+        }
+        
+        @Override
+        public boolean rest() {
+            return this == REST;
+        }
+    }
+    
+    /**
+     * One argument of a route: a literal with its alternatives, or a named input.
+     */
+    record Token(String[] words, Input input, String name) {
+        
+        /**
+         * What two routes must agree on for this argument to be shared between them.
+         */
+        String key() {
+            if (input != null) return "<" + input.key() + ":" + name + ">";
+            final String[] folded = new String[words.length];
+            for (int i = 0; i < words.length; i++) folded[i] = words[i].toLowerCase(Locale.ROOT);
+            return String.join("|", folded);
+        }
+        
+        Argument<?> create() {
+            if (input != null) return input.create().setLabel(name);
+            if (words.length == 1) return new ArgLiteral(words[0]);
+            return new ArgLiteralPlural(words);
+        }
+    }
+    
+    /**
+     * Routes are registered in a fixed order, with literals before inputs at each step,
+     * since the order of {@link Class#getDeclaredMethods()} is not the order of the source.
+     */
+    record Route(Method method, String label, String[] aliases, List<Token> tokens,
+                 @Nullable String description) implements Comparable<Route> {
+                     
+        /**
+         * Routes with the same key would accept exactly the same input.
+         */
+        String key() {
+            final StringJoiner joiner = new StringJoiner(" ");
+            for (Token token : tokens) joiner.add(token.input != null ? "<" + token.input.key() + ">" : token.key());
+            return joiner.toString();
+        }
+        
+        @Override
+        public int compareTo(@NotNull Route other) {
+            int order = label.compareTo(other.label);
+            for (int i = 0; order == 0 && i < Math.min(tokens.size(), other.tokens.size()); i++) {
+                final Token first = tokens.get(i), second = other.tokens.get(i);
+                if ((first.input == null) != (second.input == null)) order = first.input == null ? -1 : 1;
+                else order = first.key().compareTo(second.key());
+            }
+            if (order == 0) order = Integer.compare(tokens.size(), other.tokens.size());
+            return order != 0 ? order : method.toString().compareTo(other.method.toString());
+        }
+    }
+    
+    record Bound<S>(@Nullable String description, Argument<?>[] arguments, Commander.CommandBiAction<S> action) {
+    }
+    
+    static final class Group<S> {
+        final String label;
+        final List<String> aliases = new ArrayList<>();
+        final List<Bound<S>> routes = new ArrayList<>();
+        final Map<String, Route> seen = new HashMap<>();
+        final Map<String, Argument<?>> shared = new HashMap<>(); // one argument for each distinct prefix, so routes share nodes
+        
+        Group(String label) {
+            this.label = label;
+        }
+        
+        Argument<?>[] arguments(Route route) {
+            final Argument<?>[] arguments = new Argument<?>[route.tokens.size()];
+            final StringBuilder prefix = new StringBuilder();
+            for (int i = 0; i < arguments.length; i++) {
+                final Token token = route.tokens.get(i);
+                prefix.append(token.key()).append(' ');
+                arguments[i] = shared.computeIfAbsent(prefix.toString(), key -> token.create());
+            }
+            return arguments;
+        }
+    }
+    
+    private static final class Scanned<S> extends Commander<S> {
+        
+        private final Group<S> group;
+        
+        Scanned(Group<S> group) {
+            super(group.label, group.aliases.toArray(new String[0]));
+            this.group = group;
+        }
+        
+        @Override
+        protected CommandImpl create() {
+            final CommandImpl command = command(group.label, group.aliases.toArray(new String[0]));
+            for (Bound<S> route : group.routes) {
+                if (route.arguments.length == 0) command.defaultAction(sender -> route.action.accept(sender, new Object[0]));
+                else command.route(route.description, route.action, route.arguments);
+            }
+            return command;
+        }
+        
+    }
+    
+}
@@ -0,0 +1,42 @@
+package mx.kenzie.commander.arg;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An {@link ArgBoolean} that can be read as a primitive, for use with typed actions.
+ *
+ * @author Moderocky
+ * @version 1.0.0
+ */
+public class ArgBool extends ArgBoolean implements BooleanArgument {
+    
+    @Override
+    public boolean serialiseBoolean(String source, int start, int end) {
+        if (scan(source, start, end)) return serialise(source, start, end);
+        return def != null && def;
+    }
+    
+    @Override
+    public boolean isPure() {
+        return this.getClass() == ArgBool.class;
+    }
+    
+    @Override
+    public ArgBool setRequired(boolean boo) {
+        super.setRequired(boo);
+        return this;
+    }
+    
+    @Override
+    public ArgBool setLabel(@NotNull String label) {
+        super.setLabel(label);
+        return this;
+    }
+    
+    @Override
+    public ArgBool setDefault(Boolean def) {
+        super.setDefault(def);
+        return this;
+    }
+    
+}
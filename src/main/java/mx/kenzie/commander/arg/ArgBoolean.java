@@ -14,11 +14,12 @@ import java.util.regex.Pattern;
 public class ArgBoolean implements Argument<Boolean> {
     
     private static final Pattern pattern = Pattern.compile("^(yes|y|no|n|true|false|1|0)$");
+    private static final List<String> COMPLETIONS = List.of("true", "false");
     private final MagicStringList ayes = new MagicStringList("yes", "1", "true", "y");
     private final MagicStringList noes = new MagicStringList("no", "0", "false", "n");
     private String label = "boolean";
     private boolean required = true;
-    private Boolean def = null;
+    protected Boolean def = null;
     
     @Override
     public @NotNull Boolean serialise(String string) {
@@ -30,6 +31,30 @@ public class ArgBoolean implements Argument<Boolean> {
         return ayes.containsIgnoreCase(string) || noes.containsIgnoreCase(string);
     }
     
+    @Override
+    public @NotNull Boolean serialise(String source, int start, int end) {
+        return contains(ayes, source, start, end);
+    }
+    
+    @Override
+    public boolean matches(String source, int start, int end) {
+        return contains(ayes, source, start, end) || contains(noes, source, start, end);
+    }
+    
+    @Override
+    public boolean scan(String source, int start, int end) {
+        return matches(source, start, end);
+    }
+    
+    private boolean contains(MagicStringList list, String source, int start, int end) {
+        for (int i = 0; i < list.size(); i++) {
+            final String string = list.get(i);
+            if (end - start == string.length() && source.regionMatches(true, start, string, 0, string.length()))
+                return true;
+        }
+        return false;
+    }
+    
     @Override
     public @NotNull String getName() {
         return label;
@@ -37,7 +62,12 @@ public class ArgBoolean implements Argument<Boolean> {
     
     @Override
     public @Nullable List<String> getCompletions() {
-        return new MagicStringList("true", "false");
+        return COMPLETIONS;
+    }
+    
+    @Override
+    public boolean hasStaticCompletions() {
+        return true;
     }
     
     @Override
@@ -50,6 +80,11 @@ public class ArgBoolean implements Argument<Boolean> {
         return required;
     }
     
+    @Override
+    public boolean isPure() {
+        return this.getClass() == ArgBoolean.class;
+    }
+    
     @Override
     public ArgBoolean setRequired(boolean boo) {
         required = boo;
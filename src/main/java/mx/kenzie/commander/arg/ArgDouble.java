@@ -0,0 +1,43 @@
+package mx.kenzie.commander.arg;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An {@link ArgNumber} that can be read as a primitive, for use with typed actions.
+ *
+ * @author Moderocky
+ * @version 1.0.0
+ */
+public class ArgDouble extends ArgNumber implements DoubleArgument {
+    
+    @Override
+    public double serialiseDouble(String source, int start, int end) {
+        if (scan(source, start, end)) return parse(source, start, end);
+        if (matches(source, start, end)) return serialise(source, start, end);
+        return def == null ? 0 : def;
+    }
+    
+    @Override
+    public boolean isPure() {
+        return this.getClass() == ArgDouble.class;
+    }
+    
+    @Override
+    public ArgDouble setRequired(boolean boo) {
+        super.setRequired(boo);
+        return this;
+    }
+    
+    @Override
+    public ArgDouble setLabel(@NotNull String label) {
+        super.setLabel(label);
+        return this;
+    }
+    
+    @Override
+    public ArgDouble setDefault(Double def) {
+        super.setDefault(def);
+        return this;
+    }
+    
+}
@@ -14,26 +14,77 @@ public class ArgInteger implements Argument<Integer> {
     private static final Pattern pattern = Pattern.compile("^(-?[0-9]{1,10})$");
     private String label = "int";
     private boolean required = true;
-    private Integer def = null;
+    protected Integer def = null;
+    
+    /**
+     * Reads an int from part of the input without allocating or throwing.
+     * The region must already have passed {@link #scan(String, int, int)}.
+     */
+    public static int parse(String source, int start, int end) {
+        final boolean negative = source.charAt(start) == '-';
+        int value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) value = value * 10 - (source.charAt(i) - '0');
+        return negative ? value : -value;
+    }
+    
+    /**
+     * Whether {@link Integer#parseInt(String)} would accept this, which allows more than the scanner,
+     * such as "+5", without throwing when it would not.
+     */
+    private static boolean parses(String string) {
+        final int length = string.length();
+        final boolean signed = length > 0 && (string.charAt(0) == '-' || string.charAt(0) == '+');
+        if (length == (signed ? 1 : 0)) return false;
+        final long limit = string.charAt(0) == '-' ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        for (int i = signed ? 1 : 0; i < length; i++) {
+            final int digit = Character.digit(string.charAt(i), 10);
+            if (digit < 0) return false;
+            value = value * 10 + digit;
+            if (value > limit) return false;
+        }
+        return true;
+    }
     
     @Override
     public @NotNull Integer serialise(String string) {
+        if (scan(string, 0, string.length())) return parse(string, 0, string.length());
         try {
             return Integer.parseInt(string);
-        } catch (Throwable throwable) {
-            return def;
+        } catch (NumberFormatException ex) {
+            if (def != null) return def;
+            throw ex;
         }
     }
     
+    @Override
+    public @NotNull Integer serialise(String source, int start, int end) {
+        if (scan(source, start, end)) return parse(source, start, end);
+        return serialise(source.substring(start, end));
+    }
+    
     @Override
     public boolean matches(String string) {
-        if (string.isEmpty()) return false;
-        try {
-            int i = Integer.parseInt(string);
-            return i == i; // Not always true.
-        } catch (Throwable throwable) {
-            return false;
+        return scan(string, 0, string.length()) || parses(string);
+    }
+    
+    @Override
+    public boolean matches(String source, int start, int end) {
+        return scan(source, start, end) || parses(source.substring(start, end));
+    }
+    
+    @Override
+    public boolean scan(String source, int start, int end) {
+        final boolean negative = start < end && source.charAt(start) == '-';
+        final int first = negative ? start + 1 : start;
+        if (first >= end || end - first > 10) return false;
+        long value = 0;
+        for (int i = first; i < end; i++) {
+            final char c = source.charAt(i);
+            if (c < '0' || c > '9') return false;
+            value = value * 10 + (c - '0');
         }
+        return value <= (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE);
     }
     
     @Override
@@ -56,6 +107,11 @@ public class ArgInteger implements Argument<Integer> {
         return required;
     }
     
+    @Override
+    public boolean isPure() {
+        return this.getClass() == ArgInteger.class;
+    }
+    
     @Override
     public ArgInteger setRequired(boolean boo) {
         required = boo;
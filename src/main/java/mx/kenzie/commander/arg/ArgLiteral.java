@@ -1,6 +1,5 @@
 package mx.kenzie.commander.arg;
 
-import mx.kenzie.magic.collection.MagicList;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -10,9 +9,12 @@ import java.util.regex.Pattern;
 public class ArgLiteral implements Argument<Void> {
     
     private final String name;
+    private final List<String> completions;
+    private Pattern pattern;
     
     public ArgLiteral(String name) {
         this.name = name.trim();
+        this.completions = List.of(this.name);
     }
     
     @NotNull
@@ -26,6 +28,11 @@ public class ArgLiteral implements Argument<Void> {
         return name.equalsIgnoreCase(string.trim());
     }
     
+    @Override
+    public boolean matches(String source, int start, int end) {
+        return end - start == name.length() && source.regionMatches(true, start, name, 0, name.length());
+    }
+    
     @Override
     public @NotNull String getName() {
         return name;
@@ -33,7 +40,12 @@ public class ArgLiteral implements Argument<Void> {
     
     @Override
     public @Nullable List<String> getCompletions() {
-        return new MagicList<>(name);
+        return completions;
+    }
+    
+    @Override
+    public boolean hasStaticCompletions() {
+        return true;
     }
     
     @Override
@@ -46,6 +58,11 @@ public class ArgLiteral implements Argument<Void> {
         return true;
     }
     
+    @Override
+    public boolean isPure() {
+        return this.getClass() == ArgLiteral.class;
+    }
+    
     @Override
     public Argument<Void> setRequired(boolean boo) {
         return this;
@@ -58,7 +75,13 @@ public class ArgLiteral implements Argument<Void> {
     
     @Override
     public Pattern getPattern() {
-        return Pattern.compile("^(" + name + ")$");
+        if (pattern == null) pattern = Pattern.compile("^(" + name + ")$");
+        return pattern;
+    }
+    
+    @Override
+    public boolean scan(String source, int start, int end) {
+        return matches(source, start, end);
     }
     
     @Override
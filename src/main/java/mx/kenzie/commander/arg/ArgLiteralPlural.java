@@ -5,31 +5,30 @@ import mx.kenzie.magic.collection.MagicStringList;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
 
 public class ArgLiteralPlural extends ArgLiteral {
     
     public final MagicStringList aliases = new MagicStringList();
-    private final Pattern pattern;
+    private final List<String> completions = Collections.unmodifiableList(aliases);
+    private Pattern pattern;
     
     public ArgLiteralPlural(String... aliases) {
         super(aliases[0].toLowerCase());
         this.aliases.addAll(new MagicList<>(aliases).collect(String::toLowerCase));
-        pattern = Pattern.compile("^(" + String.join("|", this.aliases) + ")$");
     }
     
     public ArgLiteralPlural(MagicList<String> aliases) {
         super(aliases.getFirst().toLowerCase());
         this.aliases.addAll(aliases.collect(String::toLowerCase));
-        pattern = Pattern.compile("^(" + String.join("|", this.aliases) + ")$");
     }
     
     public ArgLiteralPlural(String name, String... aliases) {
         super(name);
         this.aliases.add(name.toLowerCase());
         if (aliases.length > 0) this.aliases.addAll(new MagicList<>(aliases).collect(String::toLowerCase));
-        pattern = Pattern.compile("^(" + String.join("|", this.aliases) + ")$");
     }
     
     @NotNull
@@ -43,6 +42,16 @@ public class ArgLiteralPlural extends ArgLiteral {
         return aliases.contains(string.toLowerCase());
     }
     
+    @Override
+    public boolean matches(String source, int start, int end) {
+        for (int i = 0; i < aliases.size(); i++) {
+            final String alias = aliases.get(i);
+            if (end - start == alias.length() && source.regionMatches(true, start, alias, 0, alias.length()))
+                return true;
+        }
+        return false;
+    }
+    
     @Override
     public @NotNull String getName() {
         return aliases.getFirst();
@@ -50,7 +59,7 @@ public class ArgLiteralPlural extends ArgLiteral {
     
     @Override
     public @Nullable List<String> getCompletions() {
-        return new MagicList<>(aliases);
+        return completions;
     }
     
     @Override
@@ -63,6 +72,11 @@ public class ArgLiteralPlural extends ArgLiteral {
         return true;
     }
     
+    @Override
+    public boolean isPure() {
+        return this.getClass() == ArgLiteralPlural.class;
+    }
+    
     @Override
     public Argument<Void> setRequired(boolean boo) {
         return this;
@@ -75,6 +89,7 @@ public class ArgLiteralPlural extends ArgLiteral {
     
     @Override
     public Pattern getPattern() {
+        if (pattern == null) pattern = Pattern.compile("^(" + String.join("|", this.aliases) + ")$");
         return pattern;
     }
 }
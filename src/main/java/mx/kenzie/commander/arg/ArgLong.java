@@ -0,0 +1,148 @@
+package mx.kenzie.commander.arg;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * @author Moderocky
+ * @version 1.0.0
+ */
+public class ArgLong implements LongArgument {
+    private static final Pattern pattern = Pattern.compile("^(-?[0-9]{1,19})$");
+    private String label = "long";
+    private boolean required = true;
+    protected Long def = null;
+    
+    /**
+     * Reads a long from part of the input without allocating or throwing.
+     * The region must already have passed {@link #scan(String, int, int)}.
+     */
+    public static long parse(String source, int start, int end) {
+        final boolean negative = source.charAt(start) == '-';
+        long value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) value = value * 10 - (source.charAt(i) - '0');
+        return negative ? value : -value;
+    }
+    
+    /**
+     * Whether {@link Long#parseLong(String)} would accept this, which allows more than the scanner,
+     * such as "+5", without throwing when it would not.
+     */
+    private static boolean parses(String string) {
+        final int length = string.length();
+        final boolean signed = length > 0 && (string.charAt(0) == '-' || string.charAt(0) == '+');
+        if (length == (signed ? 1 : 0)) return false;
+        final long limit = string.charAt(0) == '-' ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+        for (int i = signed ? 1 : 0; i < length; i++) {
+            final int digit = Character.digit(string.charAt(i), 10);
+            if (digit < 0 || value < limit / 10) return false;
+            value *= 10;
+            if (value < limit + digit) return false;
+            value -= digit;
+        }
+        return true;
+    }
+    
+    @Override
+    public @NotNull Long serialise(String string) {
+        if (scan(string, 0, string.length())) return parse(string, 0, string.length());
+        try {
+            return Long.parseLong(string);
+        } catch (NumberFormatException ex) {
+            if (def != null) return def;
+            throw ex;
+        }
+    }
+    
+    @Override
+    public @NotNull Long serialise(String source, int start, int end) {
+        if (scan(source, start, end)) return parse(source, start, end);
+        return serialise(source.substring(start, end));
+    }
+    
+    @Override
+    public long serialiseLong(String source, int start, int end) {
+        if (scan(source, start, end)) return parse(source, start, end);
+        if (matches(source, start, end)) return serialise(source, start, end);
+        return def == null ? 0 : def;
+    }
+    
+    @Override
+    public boolean matches(String string) {
+        return scan(string, 0, string.length()) || parses(string);
+    }
+    
+    @Override
+    public boolean matches(String source, int start, int end) {
+        return scan(source, start, end) || parses(source.substring(start, end));
+    }
+    
+    @Override
+    public boolean scan(String source, int start, int end) {
+        final boolean negative = start < end && source.charAt(start) == '-';
+        final int first = negative ? start + 1 : start;
+        if (first >= end || end - first > 19) return false;
+        final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+        for (int i = first; i < end; i++) {
+            final char c = source.charAt(i);
+            if (c < '0' || c > '9') return false;
+            if (value < limit / 10) return false;
+            value *= 10;
+            if (value < limit + (c - '0')) return false;
+            value -= c - '0';
+        }
+        return true;
+    }
+    
+    @Override
+    public @NotNull String getName() {
+        return label;
+    }
+    
+    @Override
+    public @Nullable List<String> getCompletions() {
+        return null;
+    }
+    
+    @Override
+    public boolean isPlural() {
+        return false;
+    }
+    
+    @Override
+    public boolean isRequired() {
+        return required;
+    }
+    
+    @Override
+    public boolean isPure() {
+        return this.getClass() == ArgLong.class;
+    }
+    
+    @Override
+    public ArgLong setRequired(boolean boo) {
+        required = boo;
+        return this;
+    }
+    
+    @Override
+    public ArgLong setLabel(@NotNull String label) {
+        this.label = label;
+        return this;
+    }
+    
+    @Override
+    public Pattern getPattern() {
+        return pattern;
+    }
+    
+    public ArgLong setDefault(Long def) {
+        this.def = def;
+        return this;
+    }
+}
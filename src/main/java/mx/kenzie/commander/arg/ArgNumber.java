@@ -15,26 +15,101 @@ public class ArgNumber implements Argument<Double> {
     private static final Pattern pattern = Pattern.compile("^(-?[0-9]+|-?[0-9]+\\.[0-9]*[1-9])$");
     private String label = "number";
     private boolean required = true;
-    private Double def = null;
+    protected Double def = null;
+    
+    private static final double[] POWERS = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    
+    /**
+     * Reads a double from part of the input without throwing.
+     * The region must already have passed {@link #scan(String, int, int)}.
+     * <p>
+     * Up to fifteen significant digits are exact in a double, as are powers of ten up to 1e22,
+     * so one division of the two is correctly rounded. Longer numbers go through {@link Double#parseDouble(String)}.
+     */
+    public static double parse(String source, int start, int end) {
+        final boolean negative = source.charAt(start) == '-';
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean fraction = false;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            final char c = source.charAt(i);
+            if (c == '.') {
+                fraction = true;
+                continue;
+            }
+            if (mantissa == 0 && c == '0') {
+                if (fraction) scale++;
+                continue;
+            }
+            if (++digits > 15) return Double.parseDouble(source.substring(start, end));
+            mantissa = mantissa * 10 + (c - '0');
+            if (fraction) scale++;
+        }
+        if (scale >= POWERS.length) return Double.parseDouble(source.substring(start, end));
+        final double value = mantissa / POWERS[scale];
+        return negative ? -value : value;
+    }
+    
+    /**
+     * Whether {@link Double#parseDouble(String)} accepts this as a number, which allows more than the scanner,
+     * such as "1.50" or "1e3".
+     */
+    private static boolean parses(String string) {
+        final String trimmed = string.trim();
+        if (trimmed.isEmpty()) return false;
+        final int sign = trimmed.charAt(0) == '-' || trimmed.charAt(0) == '+' ? 1 : 0;
+        final char first = trimmed.length() > sign ? trimmed.charAt(sign) : ' ';
+        if ((first < '0' || first > '9') && first != '.' && first != 'I') return false; // words are not numbers, and need not throw
+        try {
+            final double value = Double.parseDouble(string);
+            return value == value; // Not always true.
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
     
     @Override
     public @NotNull Double serialise(String string) {
+        if (scan(string, 0, string.length())) return parse(string, 0, string.length());
         try {
             return Double.valueOf(string);
-        } catch (Throwable throwable) {
-            return def;
+        } catch (NumberFormatException ex) {
+            if (def != null) return def;
+            throw ex;
         }
     }
     
+    @Override
+    public @NotNull Double serialise(String source, int start, int end) {
+        if (scan(source, start, end)) return parse(source, start, end);
+        return serialise(source.substring(start, end));
+    }
+    
     @Override
     public boolean matches(String string) {
-        if (string.isEmpty()) return false;
-        try {
-            double d = Double.parseDouble(string);
-            return d == d; // Not always true.
-        } catch (Throwable throwable) {
-            return false;
+        return scan(string, 0, string.length()) || parses(string);
+    }
+    
+    @Override
+    public boolean matches(String source, int start, int end) {
+        return scan(source, start, end) || parses(source.substring(start, end));
+    }
+    
+    @Override
+    public boolean scan(String source, int start, int end) {
+        int i = start < end && source.charAt(start) == '-' ? start + 1 : start;
+        final int whole = i;
+        while (i < end && source.charAt(i) >= '0' && source.charAt(i) <= '9') i++;
+        if (i == whole) return false;
+        if (i == end) return true;
+        if (source.charAt(i) != '.' || source.charAt(end - 1) == '0') return false;
+        for (i++; i < end; i++) {
+            if (source.charAt(i) < '0' || source.charAt(i) > '9') return false;
         }
+        return source.charAt(end - 1) != '.';
     }
     
     @Override
@@ -57,6 +132,11 @@ public class ArgNumber implements Argument<Double> {
         return required;
     }
     
+    @Override
+    public boolean isPure() {
+        return this.getClass() == ArgNumber.class;
+    }
+    
     @Override
     public ArgNumber setRequired(boolean boo) {
         required = boo;
@@ -28,6 +28,11 @@ public class ArgString implements Argument<String> {
         return true;
     }
     
+    @Override
+    public boolean matches(String source, int start, int end) {
+        return true;
+    }
+    
     @Override
     public @NotNull String getName() {
         return label;
@@ -48,6 +53,11 @@ public class ArgString implements Argument<String> {
         return required;
     }
     
+    @Override
+    public boolean isPure() {
+        return this.getClass() == ArgString.class;
+    }
+    
     @Override
     public ArgString setRequired(boolean boo) {
         required = boo;
@@ -65,6 +75,37 @@ public class ArgString implements Argument<String> {
         return pattern;
     }
     
+    @Override
+    public boolean scan(String source, int start, int end) {
+        if (start >= end) return false;
+        final char first = source.charAt(start);
+        if (first == '"' || first == '\'') {
+            if (end - start < 3 || source.charAt(end - 1) != first) return false;
+            for (int i = start + 1; i < end - 1; i++) {
+                final char c = source.charAt(i);
+                if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') return false;
+            }
+            return true;
+        }
+        for (int i = start; i < end; i++) {
+            switch (source.charAt(i)) {
+                case '"', '\'', ' ', '\t', '\n', '\u000B', '\f', '\r':
+                    return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public @NotNull String serialise(String source, int start, int end) {
+        if (end - start >= 2) {
+            final char first = source.charAt(start);
+            if ((first == '"' || first == '\'') && source.charAt(end - 1) == first)
+                return source.substring(start + 1, end - 1);
+        }
+        return source.substring(start, end);
+    }
+    
     @Override
     public boolean acceptSpaces() {
         return true;
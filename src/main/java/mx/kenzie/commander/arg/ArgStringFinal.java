@@ -8,6 +8,7 @@ import java.util.regex.Pattern;
 
 public class ArgStringFinal implements Argument<String> {
     
+    private static final Pattern pattern = Pattern.compile("^(.+)$");
     private String label = "string";
     private boolean required = true;
     
@@ -22,6 +23,11 @@ public class ArgStringFinal implements Argument<String> {
         return true;
     }
     
+    @Override
+    public boolean matches(String source, int start, int end) {
+        return true;
+    }
+    
     @Override
     public @NotNull String getName() {
         return label;
@@ -42,6 +48,11 @@ public class ArgStringFinal implements Argument<String> {
         return required;
     }
     
+    @Override
+    public boolean isPure() {
+        return this.getClass() == ArgStringFinal.class;
+    }
+    
     @Override
     public ArgStringFinal setRequired(boolean boo) {
         required = boo;
@@ -56,7 +67,19 @@ public class ArgStringFinal implements Argument<String> {
     
     @Override
     public Pattern getPattern() {
-        return Pattern.compile("^(.+)$");
+        return pattern;
+    }
+    
+    @Override
+    public boolean scan(String source, int start, int end) {
+        if (start >= end) return false;
+        for (int i = start; i < end; i++) {
+            switch (source.charAt(i)) {
+                case '\n', '\r', '\u0085', '\u2028', '\u2029':
+                    return false;
+            }
+        }
+        return true;
     }
     
     @Override
@@ -3,7 +3,6 @@ package mx.kenzie.commander.arg;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.ParameterizedType;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -22,6 +21,10 @@ public interface Argument<X> {
     Argument<Double> NUMBER = new ArgNumber();
     Argument<String> STRING = new ArgString();
     Argument<String> STRING_TAKE_ALL = new ArgStringFinal();
+    IntArgument INT = new ArgInt();
+    LongArgument LONG = new ArgLong();
+    DoubleArgument DOUBLE = new ArgDouble();
+    BooleanArgument BOOL = new ArgBool();
     
     /**
      * This should convert the player's input to a valid object.
@@ -46,9 +49,42 @@ public interface Argument<X> {
      */
     boolean matches(String string);
     
+    /**
+     * Checks part of the input in place, so the dispatcher does not need to copy out every token.
+     * <p>
+     * This defaults to {@link #matches(String)} on a substring.
+     * Override it if your argument can be checked without making one.
+     *
+     * @param source The whole input.
+     * @param start  The start of this argument, inclusive.
+     * @param end    The end of this argument, exclusive.
+     * @return Boo
+     */
+    default boolean matches(String source, int start, int end) {
+        return matches(source.substring(start, end));
+    }
+    
+    /**
+     * Converts part of the input in place. See {@link #serialise(String)}.
+     *
+     * @param source The whole input.
+     * @param start  The start of this argument, inclusive.
+     * @param end    The end of this argument, exclusive.
+     * @return The serialised object
+     */
+    default @NotNull X serialise(String source, int start, int end) {
+        return serialise(source.substring(start, end));
+    }
+    
+    /**
+     * The type this argument converts to, as declared by its class.
+     * This is read from the class hierarchy once per class, and remembered.
+     *
+     * @return The type of the serialised object, or {@link Object} if it is not declared
+     */
     @SuppressWarnings("unchecked")
     default Class<X> getType() {
-        return ((Class<X>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0]);
+        return (Class<X>) ArgumentTypes.TYPES.get(getClass());
     }
     
     /**
@@ -115,6 +151,58 @@ public interface Argument<X> {
         return Pattern.compile("^(\\S+)$");
     }
     
+    /**
+     * Checks that part of the input has the right shape for this argument, before {@link #matches(String, int, int)}.
+     * <p>
+     * The built-in arguments scan the characters by hand. If this is not overridden, or a subclass
+     * overrides {@link #getPattern()} but not this, the dispatcher compiles the pattern once
+     * and matches the region against it instead.
+     *
+     * @param source The whole input.
+     * @param start  The start of this argument, inclusive.
+     * @param end    The end of this argument, exclusive.
+     * @return Whether the region could be this argument
+     */
+    default boolean scan(String source, int start, int end) {
+        return getPattern().matcher(source).region(start, end).matches();
+    }
+    
+    /**
+     * Whether this argument's checks and values depend only on the input text.
+     * The result of parsing an input made only of pure arguments can be cached and reused.
+     * <p>
+     * Arguments that look things up, such as online players or loaded worlds, must not be pure.
+     * The built-in arguments are pure only as themselves, not as subclasses, since a subclass
+     * such as a player argument extending {@link ArgString} may add such checks.
+     * Override this to return true when a subclass only changes how the text is read.
+     *
+     * @return Whether the same input always gives the same, immutable, value
+     */
+    default boolean isPure() {
+        return false;
+    }
+    
+    /**
+     * Whether {@link #getCompletions()} always gives the same list.
+     * Static completions are read once when the command compiles and shared from then on.
+     *
+     * @return True if the completions never change
+     */
+    default boolean hasStaticCompletions() {
+        return false;
+    }
+    
+    /**
+     * How long a list from {@link #getCompletions()} stays valid, in milliseconds.
+     * Once it expires, the next completion still receives the old list while a fresh one is
+     * fetched in the background. Zero, the default, asks for a new list on every completion.
+     *
+     * @return The time-to-live of this argument's completions
+     */
+    default long getCompletionLifetime() {
+        return 0;
+    }
+    
     default boolean acceptSpaces() {
         return false;
     }
@@ -0,0 +1,65 @@
+package mx.kenzie.commander.arg;
+
+import java.lang.reflect.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds what {@code X} each argument class gives to {@link Argument}, once per class.
+ * <p>
+ * The type argument can be given anywhere in the hierarchy, such as {@code ArgDouble extends ArgNumber}
+ * where only {@code ArgNumber implements Argument<Double>}, or through a type variable of a superclass,
+ * so the declarations are walked with their type variables bound.
+ */
+final class ArgumentTypes {
+    
+    static final ClassValue<Class<?>> TYPES = new ClassValue<>() {
+        @Override
+        protected Class<?> computeValue(Class<?> type) {
+            final Class<?> found = find(type, Map.of());
+            return found == null ? Object.class : found;
+        }
+    };
+    
+    private ArgumentTypes() {
+    }
+    
+    private static Class<?> find(Class<?> type, Map<TypeVariable<?>, Type> bindings) {
+        for (Type parent : type.getGenericInterfaces()) {
+            final Class<?> found = find(parent, bindings);
+            if (found != null) return found;
+        }
+        final Type parent = type.getGenericSuperclass();
+        return parent == null ? null : find(parent, bindings);
+    }
+    
+    private static Class<?> find(Type parent, Map<TypeVariable<?>, Type> bindings) {
+        if (parent instanceof Class<?> raw) return Argument.class.isAssignableFrom(raw) ? find(raw, Map.of()) : null;
+        if (!(parent instanceof ParameterizedType parameterized)) return null;
+        final Class<?> raw = (Class<?>) parameterized.getRawType();
+        if (!Argument.class.isAssignableFrom(raw)) return null;
+        final Type[] arguments = parameterized.getActualTypeArguments();
+        if (raw == Argument.class) return erase(arguments[0], bindings);
+        final TypeVariable<?>[] variables = raw.getTypeParameters();
+        final Map<TypeVariable<?>, Type> bound = new HashMap<>();
+        for (int i = 0; i < variables.length; i++) {
+            final Type argument = arguments[i];
+            bound.put(variables[i], argument instanceof TypeVariable<?> && bindings.containsKey(argument) ? bindings.get(argument) : argument);
+        }
+        return find(raw, bound);
+    }
+    
+    private static Class<?> erase(Type type, Map<TypeVariable<?>, Type> bindings) {
+        if (type instanceof Class<?> raw) return raw;
+        if (type instanceof ParameterizedType parameterized) return (Class<?>) parameterized.getRawType();
+        if (type instanceof GenericArrayType array)
+            return erase(array.getGenericComponentType(), bindings).arrayType();
+        if (type instanceof WildcardType wildcard) return erase(wildcard.getUpperBounds()[0], bindings);
+        if (type instanceof TypeVariable<?> variable) {
+            final Type bound = bindings.get(variable);
+            return erase(bound != null ? bound : variable.getBounds()[0], bindings);
+        }
+        return Object.class;
+    }
+    
+}
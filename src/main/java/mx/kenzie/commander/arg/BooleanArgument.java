@@ -0,0 +1,23 @@
+package mx.kenzie.commander.arg;
+
+/**
+ * An argument that can be read straight into a boolean, so typed actions receive it without boxing.
+ *
+ * @author Moderocky
+ * @version 1.0.0
+ */
+public interface BooleanArgument extends Argument<Boolean> {
+    
+    /**
+     * Reads this argument from part of the input.
+     * Unlike {@link #serialise(String)}, this is also called for an optional argument that was left out
+     * or did not match, when it should give the default value, or false without one.
+     *
+     * @param source The whole input.
+     * @param start  The start of this argument, inclusive.
+     * @param end    The end of this argument, exclusive.
+     * @return The value
+     */
+    boolean serialiseBoolean(String source, int start, int end);
+    
+}
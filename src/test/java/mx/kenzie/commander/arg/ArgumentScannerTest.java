@@ -0,0 +1,95 @@
+package mx.kenzie.commander.arg;
+
+import org.junit.Test;
+
+public class ArgumentScannerTest {
+    
+    static boolean scan(Argument<?> argument, String string) {
+        final String source = "> " + string + " <";
+        return argument.scan(source, 2, 2 + string.length());
+    }
+    
+    @Test
+    public void integers() {
+        assert scan(Argument.INTEGER, "0");
+        assert scan(Argument.INTEGER, "-15");
+        assert scan(Argument.INTEGER, "2147483647");
+        assert scan(Argument.INTEGER, "-2147483648");
+        assert !scan(Argument.INTEGER, "2147483648");
+        assert !scan(Argument.INTEGER, "-");
+        assert !scan(Argument.INTEGER, "");
+        assert !scan(Argument.INTEGER, "1.5");
+        assert !scan(Argument.INTEGER, "+1");
+        assert ArgInteger.parse("x-2147483648x", 1, 12) == Integer.MIN_VALUE;
+        assert Argument.INTEGER.serialise("-42") == -42;
+        assert Argument.INTEGER.matches("+5");
+        assert Argument.INTEGER.matches("x+5x", 1, 3);
+        assert Argument.INTEGER.serialise("+5") == 5;
+        assert !Argument.INTEGER.matches("5.0");
+    }
+    
+    @Test
+    public void numbers() {
+        assert scan(Argument.NUMBER, "12");
+        assert scan(Argument.NUMBER, "-0.5");
+        assert !scan(Argument.NUMBER, "1.0");
+        assert !scan(Argument.NUMBER, "1.");
+        assert !scan(Argument.NUMBER, ".5");
+        assert !scan(Argument.NUMBER, "1e5");
+        for (String string : new String[]{"0.1", "-3.14159", "123456.789", "0.000000000000000000000001",
+            "98765432109876543210.123", "9007199254740993", "-0"}) {
+            assert Double.compare(ArgNumber.parse(string, 0, string.length()), Double.parseDouble(string)) == 0 : string;
+        }
+        assert Argument.NUMBER.matches("1.50");
+        assert Argument.NUMBER.matches("+5");
+        assert Argument.NUMBER.serialise("1.50") == 1.5;
+        assert !Argument.NUMBER.matches("NaN");
+        assert !Argument.NUMBER.matches("five");
+    }
+    
+    @Test
+    public void strings() {
+        assert scan(Argument.STRING, "hello");
+        assert scan(Argument.STRING, "\"hello there\"");
+        assert scan(Argument.STRING, "'a b'");
+        assert !scan(Argument.STRING, "\"hello");
+        assert !scan(Argument.STRING, "hello there");
+        assert !scan(Argument.STRING, "");
+        assert scan(Argument.STRING_TAKE_ALL, "hello there");
+        assert !scan(Argument.STRING_TAKE_ALL, "");
+    }
+    
+    @Test
+    public void signsAndDefaults() {
+        assert Argument.LONG.matches("+5");
+        assert Argument.LONG.matches("x+5x", 1, 3);
+        assert Argument.LONG.serialise("+5") == 5L;
+        assert Argument.LONG.matches("-9223372036854775808");
+        assert !Argument.LONG.matches("9223372036854775808");
+        assert !Argument.LONG.matches("+");
+        assert Argument.NUMBER.matches("+5");
+        for (Argument<?> argument : new Argument<?>[]{Argument.INT, Argument.LONG, Argument.DOUBLE}) {
+            try {
+                argument.serialise("five");
+                assert false;
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        assert new ArgLong().setDefault(7L).serialise("five") == 7L;
+        assert new ArgInt().serialiseInt("five", 0, 4) == 0;
+        assert new ArgInt().setDefault(3).serialiseInt("five", 0, 4) == 3;
+        assert new ArgLong().serialiseLong("x+5x", 1, 3) == 5L;
+        assert new ArgDouble().setDefault(1.5).serialiseDouble("five", 0, 4) == 1.5;
+    }
+    
+    @Test
+    public void literals() {
+        assert scan(Argument.BOOLEAN, "TRUE");
+        assert scan(Argument.BOOLEAN, "n");
+        assert !scan(Argument.BOOLEAN, "maybe");
+        assert scan(new ArgLiteral("warp"), "WaRp");
+        assert !scan(new ArgLiteral("warp"), "warps");
+        assert scan(new ArgLiteralPlural(new String[]{"warp", "w"}), "W");
+    }
+    
+}
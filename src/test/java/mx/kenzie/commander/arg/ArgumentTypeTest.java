@@ -0,0 +1,42 @@
+package mx.kenzie.commander.arg;
+
+import org.junit.Test;
+
+public class ArgumentTypeTest {
+    
+    @Test
+    public void builtIn() {
+        assert Argument.STRING.getType() == String.class;
+        assert Argument.INTEGER.getType() == Integer.class;
+        assert Argument.BOOLEAN.getType() == Boolean.class;
+        assert Argument.STRING_TAKE_ALL.getType() == String.class;
+        assert Argument.DOUBLE.getType() == Double.class;
+        assert Argument.LONG.getType() == Long.class;
+        assert new ArgLiteral("test").getType() == Void.class;
+        assert new ArgInteger() {}.getType() == Integer.class;
+    }
+    
+    @Test
+    public void throughTypeVariables() {
+        assert ArgumentTypes.TYPES.get(Letter.class) == Character.class;
+        assert ArgumentTypes.TYPES.get(Letters.class) == StringBuilder.class;
+        assert ArgumentTypes.TYPES.get(Unknown.class) == Object.class;
+    }
+    
+    interface Wrapping<T> extends Argument<T> {
+    }
+    
+    abstract static class Mapped<A, B> implements Wrapping<B> {
+    }
+    
+    abstract static class Letter extends Mapped<String, Character> {
+    }
+    
+    abstract static class Letters extends Mapped<Integer, StringBuilder> implements Comparable<Letters> {
+    }
+    
+    @SuppressWarnings("rawtypes")
+    abstract static class Unknown implements Argument {
+    }
+    
+}
@@ -0,0 +1,109 @@
+package mx.kenzie.commander.async;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.ArgString;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class AsyncCompletionTest {
+    
+    @Test
+    public void deadline() throws Exception {
+        this.deadline(new Lookup(command -> command.allowAsyncExecution(Executors.newCachedThreadPool())));
+    }
+    
+    @Test
+    public void deadlineWithoutPool() throws Exception {
+        this.deadline(new Lookup(command -> {}));
+    }
+    
+    @Test
+    public void deadlineWithCallerRuns() throws Exception {
+        final Lookup commander = new Lookup(command -> command.allowBoundedExecution(1, 1, Commander.Overflow.CALLER_RUNS));
+        commander.executeAsync(new FutureResultReader(), "lookup", "hold");
+        commander.executeAsync(new FutureResultReader(), "lookup", "hold"); // the pool is full from here
+        try {
+            this.deadline(commander);
+        } finally {
+            commander.release.countDown();
+        }
+    }
+    
+    private void deadline(Lookup commander) throws Exception {
+        final long start = System.nanoTime();
+        final List<String> completions = commander.getNextCompletionsAsync(200, TimeUnit.MILLISECONDS, "find", "").get();
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assert elapsed < 2000 : elapsed;
+        assert completions.containsAll(List.of("recent", "alpha", "beta")) : completions;
+        assert !completions.contains("remote");
+        assert commander.interrupted.await(2, TimeUnit.SECONDS); // the slow provider was cancelled
+    }
+    
+    @Test
+    public void complete() throws Exception {
+        final Lookup commander = new Lookup(command -> {});
+        final List<String> completions = commander.getNextCompletionsAsync(1, TimeUnit.SECONDS, "fi").get();
+        assert completions.equals(List.of("find"));
+    }
+    
+    static class Provider extends ArgString {
+        final long delay;
+        final Runnable cancelled;
+        final List<String> names;
+        
+        Provider(long delay, Runnable cancelled, String... names) {
+            this.delay = delay;
+            this.cancelled = cancelled;
+            this.names = List.of(names);
+        }
+        
+        @Override
+        public @Nullable List<String> getCompletions() {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException ex) {
+                cancelled.run();
+                return null;
+            }
+            return names;
+        }
+        
+        @Override
+        public boolean matches(String string) {
+            return false;
+        }
+    }
+    
+    static class Lookup extends Commander<FutureResultReader> {
+        final CountDownLatch interrupted = new CountDownLatch(1), release = new CountDownLatch(1);
+        final Consumer<CommandImpl> pool;
+        
+        Lookup(Consumer<CommandImpl> pool) {
+            this.pool = pool;
+            this.recompile();
+        }
+        
+        @Override
+        protected CommandImpl create() {
+            final CommandImpl command = command("lookup");
+            if (pool != null) pool.accept(command);
+            return command
+                .arg("find", arg((sender, inputs) -> {}, new Provider(0, () -> {}, "alpha", "beta")))
+                .arg("find", arg((sender, inputs) -> {}, new Provider(5_000, () -> interrupted.countDown(), "remote")))
+                .arg(sender -> {}, "find", "recent")
+                .arg("hold", sender -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                });
+        }
+    }
+    
+}
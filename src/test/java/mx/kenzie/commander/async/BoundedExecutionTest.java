@@ -0,0 +1,95 @@
+package mx.kenzie.commander.async;
+
+import mx.kenzie.commander.Commander;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+public class BoundedExecutionTest {
+    
+    @Test
+    public void reject() throws Exception {
+        final Gate commander = new Gate(Commander.Overflow.REJECT);
+        final CompletableFuture<Void> running = commander.executeAsync("a", "gate", "hold");
+        commander.started.await();
+        final CompletableFuture<Void> queued = commander.executeAsync("b", "gate", "pass");
+        assert commander.getQueueDepth() == 1;
+        final CompletableFuture<Void> refused = commander.executeAsync("c", "gate", "pass");
+        assert refused.isCompletedExceptionally();
+        assert commander.failed.equals(Collections.singletonList("c"));
+        commander.release.countDown();
+        running.get();
+        queued.get();
+        assert commander.ran.equals(List.of("a", "b"));
+    }
+    
+    @Test
+    public void dropOldest() throws Exception {
+        final Gate commander = new Gate(Commander.Overflow.DROP_OLDEST);
+        final CompletableFuture<Void> running = commander.executeAsync("a", "gate", "hold");
+        commander.started.await();
+        final CompletableFuture<Void> oldest = commander.executeAsync("b", "gate", "pass");
+        final CompletableFuture<Void> newest = commander.executeAsync("c", "gate", "pass");
+        assert oldest.isCompletedExceptionally();
+        assert commander.failed.equals(Collections.singletonList("b"));
+        assert commander.getQueueDepth() == 1;
+        commander.release.countDown();
+        running.get();
+        newest.get();
+        assert commander.ran.equals(List.of("a", "c"));
+    }
+    
+    @Test
+    public void callerRuns() throws Exception {
+        final Gate commander = new Gate(Commander.Overflow.CALLER_RUNS);
+        final CompletableFuture<Void> running = commander.executeAsync("a", "gate", "hold");
+        commander.started.await();
+        commander.executeAsync("b", "gate", "pass");
+        final CompletableFuture<Void> overflow = commander.executeAsync("c", "gate", "pass");
+        assert overflow.isDone();
+        assert commander.threads.contains(Thread.currentThread().getName());
+        commander.release.countDown();
+        running.get();
+        assert commander.failed.isEmpty();
+    }
+    
+    static class Gate extends Commander<String> {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> ran = new CopyOnWriteArrayList<>();
+        final List<String> failed = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        final Overflow overflow;
+        
+        Gate(Overflow overflow) {
+            this.overflow = overflow;
+            this.recompile();
+        }
+        
+        @Override
+        protected CommandImpl create() {
+            if (overflow == null) return command("gate");
+            return command("gate")
+                .allowBoundedExecution(1, 1, overflow)
+                .setFailureBehaviour(context -> failed.add(context.sender()))
+                .arg("hold", sender -> {
+                    ran.add(sender);
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .arg("pass", sender -> {
+                    ran.add(sender);
+                    threads.add(Thread.currentThread().getName());
+                });
+        }
+    }
+    
+}
@@ -0,0 +1,106 @@
+package mx.kenzie.commander.async;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.Argument;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SerialExecutionTest {
+    
+    @Test
+    public void ordered() {
+        final Ledger commander = new Ledger();
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        final Account[] accounts = {new Account(), new Account(), new Account(), new Account()};
+        for (int i = 0; i < 2_000; i++) {
+            for (Account account : accounts) futures.add(commander.executeAsync(account, "ledger", "append", i + ""));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        for (Account account : accounts) {
+            assert account.entries.size() == 2_000;
+            for (int i = 0; i < 2_000; i++) assert account.entries.get(i) == i;
+            assert account.overlaps == 0;
+        }
+    }
+    
+    @Test
+    public void parallel() {
+        final Ledger commander = new Ledger();
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 64; i++) futures.add(commander.executeAsync(new Account(), "ledger", "append", "0"));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        assert commander.threads.size() > 1 || Runtime.getRuntime().availableProcessors() == 1;
+    }
+    
+    @Test
+    public void recompiled() {
+        final Ledger commander = new Ledger();
+        final ExecutorService pool = commander.pool();
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        final Account[] accounts = {new Account(), new Account(), new Account(), new Account()};
+        for (int i = 0; i < 2_000; i++) {
+            for (Account account : accounts) futures.add(commander.executeAsync(account, "ledger", "append", i + ""));
+            if (i % 100 == 0) commander.recompile();
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        assert commander.pool() == pool;
+        for (Account account : accounts) {
+            for (int i = 0; i < 2_000; i++) assert account.entries.get(i) == i;
+            assert account.overlaps == 0;
+        }
+    }
+    
+    @Test
+    public void reconfigured() {
+        final int[] lanes = {2};
+        final Ledger commander = new Ledger() {
+            @Override
+            protected CommandImpl create() {
+                return super.create().allowSerialExecution(lanes[0], account -> account);
+            }
+        };
+        final ExecutorService pool = commander.pool();
+        commander.recompile();
+        assert commander.pool() == pool;
+        lanes[0] = 4;
+        commander.recompile();
+        assert commander.pool() != pool;
+        assert pool.isShutdown();
+        final Account account = new Account();
+        commander.executeAsync(account, "ledger", "append", "5").join();
+        assert account.entries.equals(List.of(5));
+    }
+    
+    static class Account {
+        final List<Integer> entries = new ArrayList<>(); // deliberately not thread-safe
+        final AtomicInteger running = new AtomicInteger();
+        volatile int overlaps;
+    }
+    
+    static class Ledger extends Commander<Account> {
+        final ConcurrentHashMap<String, Boolean> threads = new ConcurrentHashMap<>();
+        
+        ExecutorService pool() {
+            return pool;
+        }
+        
+        @Override
+        protected CommandImpl create() {
+            return command("ledger")
+                .allowSerialExecution()
+                .arg("append", arg((account, inputs) -> {
+                    if (account.running.incrementAndGet() > 1) account.overlaps++;
+                    account.entries.add((Integer) inputs[0]);
+                    threads.put(Thread.currentThread().getName(), true);
+                    account.running.decrementAndGet();
+                }, Argument.INTEGER));
+        }
+    }
+    
+}
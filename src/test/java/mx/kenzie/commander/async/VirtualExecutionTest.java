@@ -0,0 +1,36 @@
+package mx.kenzie.commander.async;
+
+import mx.kenzie.commander.Commander;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class VirtualExecutionTest {
+    
+    @Test
+    public void blocking() {
+        final AtomicInteger done = new AtomicInteger();
+        final Commander<FutureResultReader> commander = new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                return command("io")
+                    .allowVirtualExecution(4)
+                    .arg("wait", sender -> {
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                        done.incrementAndGet();
+                    });
+            }
+        };
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[64];
+        for (int i = 0; i < futures.length; i++)
+            futures[i] = commander.executeAsync(new FutureResultReader(), "io", "wait");
+        CompletableFuture.allOf(futures).join();
+        assert done.get() == 64;
+    }
+    
+}
@@ -0,0 +1,136 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.Argument;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds each route to a budget of bytes allocated per call, once the JIT has warmed up,
+ * so that an extra object on the dispatch path fails the build rather than showing up as GC pressure.
+ * <p>
+ * The budgets include what each route's action allocates. Each is exactly what the route allocates on JDK 17
+ * when escape analysis removes nothing, measured with {@code -XX:-DoEscapeAnalysis}, where the figures do not move
+ * from run to run. With escape analysis on, the JIT may remove some objects, depending on what it inlined, so a
+ * route can measure less but never more. A change that makes a route cheaper lowers its budget in the same commit.
+ */
+public class AllocationTest {
+    
+    private static final int WARMUP = 40_000, CALLS = 10_000, ROUNDS = 5;
+    
+    private final List<String> failures = new ArrayList<>();
+    private com.sun.management.ThreadMXBean threads;
+    
+    @Before
+    public void supported() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        this.threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+    
+    @Test
+    public void exampleRoutes() {
+        final ExampleCommander commander = new ExampleCommander();
+        final ResultReader reader = new ResultReader();
+        this.check("test", 240, () -> commander.execute(reader, "test"));
+        this.check("test foo", 352, () -> commander.execute(reader, "test", "foo"));
+        this.check("test true", 392, () -> commander.execute(reader, "test", "true"));
+        this.check("test blob true", 472, () -> commander.execute(reader, "test", "blob", "true"));
+        this.check("test box boo 5", 648, () -> commander.execute(reader, "test", "box", "boo", "5"));
+        this.check("test num 1 5", 640, () -> commander.execute(reader, "test", "num", "1", "5"));
+        this.check("test conflict blob", 544, () -> commander.execute(reader, "test", "conflict", "blob"));
+        this.check("test takeall hello there!", 552, () -> commander.execute(reader, "test", "takeall", "hello", "there!"));
+        this.check("test takeafter 0.5 hello there!", 624, () -> commander.execute(reader, "test", "takeafter", "0.5", "hello", "there!"));
+        this.check("test missing", 264, () -> commander.execute(reader, "test", "missing"));
+        this.check("completions for test", 880, () -> commander.getNextCompletions());
+        this.check("completions for test bo", 496, () -> commander.getNextCompletions("bo"));
+        this.check("completions for test box", 768, () -> commander.getNextCompletions("box", ""));
+        this.verify();
+    }
+    
+    /**
+     * The same routes in a tree of twenty thousand must cost what they do in a tree of a hundred.
+     */
+    @Test
+    public void generatedRoutes() {
+        final ResultReader reader = new ResultReader();
+        for (int size : new int[]{100, 20_000}) {
+            final Commander<ResultReader> commander = generate(size);
+            this.check(size + ": first", 432, () -> commander.execute(reader, "bench", "group0", "item0"));
+            this.check(size + ": typed", 552, () -> commander.execute(reader, "bench", "group0", "42", "word"));
+            this.check(size + ": last", 432, () -> commander.execute(reader, "bench", "group0", "item99"));
+            this.check(size + ": missing", 272, () -> commander.execute(reader, "bench", "missing", "input"));
+            this.check(size + ": completions", 7080, () -> commander.getNextCompletions("group0", "item"));
+        }
+        this.verify();
+    }
+    
+    /**
+     * Checking input against the built-in arguments allocates nothing, and converting it allocates only the value.
+     */
+    @Test
+    public void argumentParsing() {
+        final String source = "test 42 4.5 true 9000000000 word";
+        this.parse(Argument.INTEGER, source, 5, 7, 0);
+        this.parse(Argument.INT, source, 5, 7, 0);
+        this.parse(Argument.NUMBER, source, 8, 11, 24);
+        this.parse(Argument.DOUBLE, source, 8, 11, 24);
+        this.parse(Argument.BOOLEAN, source, 12, 16, 0);
+        this.parse(Argument.BOOL, source, 12, 16, 0);
+        this.parse(Argument.LONG, source, 17, 27, 24);
+        this.parse(Argument.STRING, source, 28, 32, 48);
+        this.parse(Argument.STRING_TAKE_ALL, source, 28, 32, 48);
+        this.verify();
+    }
+    
+    private void parse(Argument<?> argument, String source, int start, int end, long value) {
+        final String name = argument.getClass().getSimpleName();
+        final Object[] sink = new Object[1];
+        this.check(name + " scan", 0, () -> sink[0] = argument.scan(source, start, end));
+        this.check(name + " matches", 0, () -> sink[0] = argument.matches(source, start, end));
+        this.check(name + " serialise", value, () -> sink[0] = argument.serialise(source, start, end));
+    }
+    
+    /**
+     * Records a failure if the call allocates more than its budget, taking the least of a few
+     * measurements so that a stray allocation elsewhere in the JVM does not count against it.
+     */
+    private void check(String name, long budget, Runnable call) {
+        for (int i = 0; i < WARMUP; i++) call.run();
+        long least = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < CALLS; i++) call.run();
+            least = Math.min(least, (threads.getCurrentThreadAllocatedBytes() - before) / CALLS);
+        }
+        if (least > budget) failures.add(name + ": " + least + " bytes per call, over the budget of " + budget);
+    }
+    
+    private void verify() {
+        assert failures.isEmpty() : "Allocation budgets exceeded:\n" + String.join("\n", failures);
+    }
+    
+    private static Commander<ResultReader> generate(int size) {
+        return new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                final CommandImpl command = command("bench");
+                for (int i = 0; i < size; i++) {
+                    command.arg(sender -> sender.send("item"), "group" + (i / 100), "item" + (i % 100));
+                    if (i % 100 == 0)
+                        command.arg("group" + (i / 100), arg((sender, inputs) -> sender.send("typed"), Argument.INTEGER, Argument.STRING));
+                }
+                return command;
+            }
+        };
+    }
+    
+}
@@ -0,0 +1,183 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.CommandContext;
+import mx.kenzie.commander.CommandRegistry;
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.Argument;
+import mx.kenzie.commander.exception.CommandParseError;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BatchExecutionTest {
+    
+    @Test
+    public void sync() {
+        final Script commander = new Script(false);
+        final List<String> log = new ArrayList<>();
+        final boolean[] results = commander.executeBatch(List.of(
+            new CommandContext<>(log, "script", "add", "1"),
+            new CommandContext<>(log, "script", "fail"),
+            new CommandContext<>(log, "script", "add", "2"),
+            new CommandContext<>(log, "script", "nothing")
+        ));
+        assert Arrays.equals(results, new boolean[]{true, false, true, true});
+        assert log.equals(List.of("1", "fail", "2", "default"));
+        assert commander.errors == 1;
+    }
+    
+    @Test
+    public void async() {
+        final Script commander = new Script(true);
+        final List<String> log = new ArrayList<>();
+        final List<CommandContext<List<String>>> contexts = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) contexts.add(new CommandContext<>(log, "script", "add", i + ""));
+        final boolean[] results = commander.executeBatch(contexts);
+        assert results.length == 1_000;
+        for (boolean result : results) assert result;
+        assert log.size() == 1_000;
+        for (int i = 0; i < 1_000; i++) assert log.get(i).equals(i + ""); // one sender, one lane
+    }
+    
+    @Test
+    public void unhandled() {
+        for (boolean serial : new boolean[]{false, true}) {
+            final Script commander = new Script(serial, false);
+            final List<String> log = new ArrayList<>();
+            try {
+                commander.executeBatch(List.of(
+                    new CommandContext<>(log, "script", "fail"),
+                    new CommandContext<>(log, "script", "add", "1")
+                ));
+                assert false : "An unhandled failure must be thrown";
+            } catch (CommandParseError expected) {
+            }
+            assert log.get(0).equals("fail");
+        }
+    }
+    
+    @Test
+    public void asyncPredicate() {
+        final Script commander = new Script(true, true) {
+            @Override
+            public CompletableFuture<Boolean> canExecuteAsync(CommandContext<List<String>> context) {
+                return CompletableFuture.supplyAsync(() -> !context.arguments()[1].equals("2"));
+            }
+        };
+        final List<String> log = new ArrayList<>();
+        final List<CommandContext<List<String>>> contexts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) contexts.add(new CommandContext<>(log, "script", "add", i + ""));
+        final boolean[] results = commander.executeBatch(contexts);
+        assert Arrays.equals(results, new boolean[]{true, true, true, true});
+        assert log.equals(List.of("0", "1", "default", "3")) : log;
+    }
+    
+    @Test
+    public void dropOldest() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Script commander = new Script(false, true) {
+            @Override
+            protected CommandImpl create() {
+                return super.create()
+                    .arg("wait", log -> {
+                        try {
+                            release.await();
+                        } catch (InterruptedException ignored) {
+                        }
+                    })
+                    .allowBoundedExecution(1, 1, Overflow.DROP_OLDEST);
+            }
+        };
+        final List<String> log = Collections.synchronizedList(new ArrayList<>());
+        commander.executeAsync(new CommandContext<>(log, "script", "wait"));
+        final List<CommandContext<List<String>>> contexts = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) contexts.add(new CommandContext<>(log, "script", "add", i + ""));
+        final CompletableFuture<boolean[]> batch = commander.executeBatchAsync(contexts);
+        release.countDown();
+        final boolean[] results = batch.get(10, TimeUnit.SECONDS);
+        int done = 0;
+        for (boolean result : results) if (result) done++;
+        assert done == log.size();
+        assert done < 1_000;
+        assert commander.errors == 1_000 - done;
+    }
+    
+    @Test
+    public void nested() throws Exception {
+        final List<String> log = new ArrayList<>();
+        final Script commander = new Script(true, true) {
+            @Override
+            protected CommandImpl create() {
+                return super.create().arg("twice", list -> this.executeBatch(List.of(
+                    new CommandContext<>(list, "script", "add", "1"),
+                    new CommandContext<>(list, "script", "add", "2")
+                )));
+            }
+        };
+        commander.executeAsync(new CommandContext<>(log, "script", "twice")).get(10, TimeUnit.SECONDS);
+        assert log.equals(List.of("1", "2")) : log;
+    }
+    
+    @Test
+    public void interleaved() {
+        final CommandRegistry<List<String>> registry = new CommandRegistry<>();
+        final List<String> log = new ArrayList<>();
+        registry.register(new Script(false)).register(new Commander<List<String>>() {
+            @Override
+            protected CommandImpl create() {
+                return command("echo")
+                    .arg("a", log -> log.add("echo a"))
+                    .arg("b", log -> log.add("echo b"));
+            }
+        });
+        final boolean[] results = registry.executeBatch(log, List.of("script add 1", "echo a", "script add 2", "script add 3", "unknown", "echo b"));
+        assert Arrays.equals(results, new boolean[]{true, true, true, true, false, true});
+        assert log.equals(List.of("1", "echo a", "2", "3", "echo b")) : log;
+    }
+    
+    @Test
+    public void registry() {
+        final CommandRegistry<List<String>> registry = new CommandRegistry<>();
+        registry.register(new Script(false));
+        final List<String> log = new ArrayList<>();
+        final boolean[] results = registry.executeBatch(log, List.of("script add 3", "unknown add 4", "script add 5"));
+        assert Arrays.equals(results, new boolean[]{true, false, true});
+        assert log.equals(List.of("3", "5"));
+    }
+    
+    static class Script extends Commander<List<String>> {
+        final boolean serial, handled;
+        volatile int errors;
+        
+        Script(boolean serial) {
+            this(serial, true);
+        }
+        
+        Script(boolean serial, boolean handled) {
+            this.serial = serial;
+            this.handled = handled;
+            this.recompile();
+        }
+        
+        @Override
+        protected CommandImpl create() {
+            final CommandImpl command = command("script")
+                .defaultAction(log -> log.add("default"))
+                .arg("add", arg((log, inputs) -> log.add(inputs[0] + ""), Argument.INTEGER))
+                .arg("fail", log -> {
+                    log.add("fail");
+                    throw new IllegalStateException();
+                });
+            if (handled) command.errorHandler((context, throwable) -> errors++);
+            if (serial) command.allowSerialExecution();
+            return command;
+        }
+    }
+    
+}
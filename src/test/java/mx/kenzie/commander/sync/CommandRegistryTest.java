@@ -0,0 +1,114 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.CommandRegistry;
+import mx.kenzie.commander.Commander;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CommandRegistryTest {
+    
+    final ResultReader reader = new ResultReader();
+    
+    @Test
+    public void labels() {
+        final CommandRegistry<ResultReader> registry = new CommandRegistry<>();
+        final Commander<ResultReader> warp = label("warp", "w", "warps");
+        registry.register("travel", warp);
+        assert registry.get("warp") == warp;
+        assert registry.get("W") == warp;
+        assert registry.get("travel:warps") == warp;
+        assert registry.get("Travel:Warp") == warp;
+        assert registry.get("travel") == null;
+        assert registry.resolve("w set home") == warp;
+        assert registry.resolve("nothing here") == null;
+    }
+    
+    @Test
+    public void dispatch() {
+        final CommandRegistry<ResultReader> registry = new CommandRegistry<>();
+        registry.register(label("home")).register(label("spawn", "hub"));
+        assert registry.execute(reader, "hub go");
+        assert reader.result.equals("spawn go");
+        assert registry.execute(reader, "HOME");
+        assert reader.result.equals("home");
+        assert !registry.execute(reader, "missing go");
+    }
+    
+    @Test
+    public void conflicts() {
+        final CommandRegistry<ResultReader> registry = new CommandRegistry<>();
+        final Commander<ResultReader> first = label("tp"), second = label("tp");
+        registry.register("first", first).register("second", second);
+        assert registry.get("tp") == first;
+        assert registry.get("second:tp") == second;
+        assert registry.unregister(first);
+        assert registry.get("tp") == second;
+        assert registry.get("first:tp") == null;
+        assert !registry.unregister(first);
+        assert registry.getCommanders().size() == 1;
+    }
+    
+    @Test
+    public void prefixedConflicts() {
+        final CommandRegistry<ResultReader> registry = new CommandRegistry<>();
+        final Commander<ResultReader> first = label("tp"), second = label("tp");
+        registry.register("same", first).register("same", second);
+        assert registry.get("same:tp") == first;
+        assert registry.unregister(first);
+        assert registry.get("same:tp") == second;
+    }
+    
+    @Test
+    public void registerAll() {
+        final CommandRegistry<ResultReader> registry = new CommandRegistry<>();
+        final List<Commander<ResultReader>> commanders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) commanders.add(label("cmd" + i, "alias" + i));
+        commanders.add(label("cmd0"));
+        registry.registerAll("bulk", commanders);
+        assert registry.getCommanders().size() == 101;
+        assert registry.get("cmd0") == commanders.get(0);
+        assert registry.get("bulk:cmd0") == commanders.get(0);
+        assert registry.get("ALIAS99") == commanders.get(99);
+        assert registry.execute(reader, "alias42 go");
+        assert reader.result.equals("cmd42 go");
+    }
+    
+    @Test
+    public void recompiled() {
+        final CommandRegistry<ResultReader> registry = new CommandRegistry<>();
+        final String[] labels = {"old"};
+        final Commander<ResultReader> commander = new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                return command("renamed", labels)
+                    .defaultAction(sender -> sender.send("renamed"));
+            }
+        };
+        registry.register("plugin", commander);
+        assert registry.get("old") == commander;
+        labels[0] = "new";
+        commander.recompile();
+        assert registry.get("new") == commander;
+        assert registry.get("plugin:new") == commander;
+        assert registry.get("old") == null;
+        assert registry.execute(reader, "new");
+        assert reader.result.equals("renamed");
+        registry.unregister(commander);
+        commander.recompile();
+        assert registry.get("new") == null;
+    }
+    
+    static Commander<ResultReader> label(String label, String... others) {
+        return new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                return command(label, others)
+                    .defaultAction(sender -> sender.send(label))
+                    .arg("go", sender -> sender.send(label + " go"));
+            }
+        };
+    }
+    
+}
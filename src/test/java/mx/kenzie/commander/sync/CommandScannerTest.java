@@ -0,0 +1,162 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.annotation.Arg;
+import mx.kenzie.commander.annotation.Command;
+import mx.kenzie.commander.annotation.CommandScanner;
+import mx.kenzie.commander.arg.ArgLong;
+import mx.kenzie.commander.exception.IllegalCommandException;
+import org.junit.Test;
+
+import java.util.List;
+
+public class CommandScannerTest {
+    
+    @Test
+    public void bindsMethods() {
+        final Warps warps = new Warps();
+        final List<Commander<ResultReader>> commanders = CommandScanner.scan(ResultReader.class, warps);
+        assert commanders.size() == 2;
+        final Commander<ResultReader> warp = commanders.get(1);
+        assert warp.getCommand().equals("warp");
+        assert warp.getAliases().contains("w");
+        assert run(warp, "set", "home").equals("set home");
+        assert run(warp, "set", "home", "12").equals("set home within 12");
+        assert run(warp, "list").equals("list of " + warps.name);
+        assert run(warp, "LS").equals("list of " + warps.name);
+        assert run(warp, "say", "hello", "there").equals("hello there");
+        assert run(warp, "cost", "9000000000").equals("cost 9000000000");
+        assert run(warp, "box", "1", "2", "3", "4", "5").equals("box 15");
+        assert run(warp).equals("warps");
+        assert warp.getPatternDescriptions().get("set <name>").equals("Sets a warp.");
+        final Commander<ResultReader> home = commanders.get(0);
+        assert home.getCommand().equals("home");
+        assert run(home, "true").equals("home true");
+    }
+    
+    @Test
+    public void literalsComeFirst() {
+        final Commander<ResultReader> commander = CommandScanner.scanStatic(ResultReader.class, Shadowed.class).get(0);
+        assert run(commander, "list").equals("literal");
+        assert run(commander, "other").equals("input other");
+    }
+    
+    @Test
+    public void rejectsInvalidRoutes() {
+        assert rejects(WrongType.class).contains("cannot be passed as");
+        assert rejects(UnknownType.class).contains("Unknown argument type");
+        assert rejects(Duplicate.class).contains("is the same as");
+        assert rejects(Instance.class).contains("not static");
+        assert rejects(Sender.class).contains("sender");
+    }
+    
+    private static String rejects(Class<?> owner) {
+        try {
+            CommandScanner.scanStatic(ResultReader.class, owner);
+        } catch (IllegalCommandException ex) {
+            return ex.getMessage();
+        }
+        throw new AssertionError(owner + " was accepted");
+    }
+    
+    private static String run(Commander<ResultReader> commander, String... arguments) {
+        final ResultReader reader = new ResultReader();
+        commander.execute(reader, commander.getCommand(), arguments);
+        return reader.result;
+    }
+    
+    static class Warps {
+        
+        final String name = "warps";
+        
+        @Command("warp")
+        void empty(ResultReader sender) {
+            sender.send(name);
+        }
+        
+        @Command(value = "warp|w set <name:string>", description = "Sets a warp.")
+        public void set(ResultReader sender, String name) {
+            sender.send("set " + name);
+        }
+        
+        @Command("warp set <name> <radius>")
+        public void set(ResultReader sender, String name, int radius) {
+            sender.send("set " + name + " within " + radius);
+        }
+        
+        @Command("warp list|ls")
+        private void list(Object sender) {
+            ((ResultReader) sender).send("list of " + name);
+        }
+        
+        @Command("warp say <message:string...>")
+        static void say(ResultReader sender, Object message) {
+            sender.send(String.valueOf(message));
+        }
+        
+        @Command("warp cost <amount>")
+        void cost(ResultReader sender, @Arg(ArgLong.class) long amount) {
+            sender.send("cost " + amount);
+        }
+        
+        @Command("warp box <a:int> <b:int> <c:int> <d:int> <e:int>")
+        void box(ResultReader sender, int a, int b, int c, int d, Integer e) {
+            sender.send("box " + (a + b + c + d + e));
+        }
+        
+        @Command("home <public:boolean>")
+        void home(ResultReader sender, boolean open) {
+            sender.send("home " + open);
+        }
+        
+    }
+    
+    static class Shadowed {
+        
+        @Command("shadow <name:string>")
+        static void input(ResultReader sender, String name) {
+            sender.send("input " + name);
+        }
+        
+        @Command("shadow list")
+        static void literal(ResultReader sender) {
+            sender.send("literal");
+        }
+        
+    }
+    
+    static class WrongType {
+        @Command("broken <count:int>")
+        static void count(ResultReader sender, String count) {
+        }
+    }
+    
+    static class UnknownType {
+        @Command("broken <value:float>")
+        static void value(ResultReader sender, float value) {
+        }
+    }
+    
+    static class Duplicate {
+        @Command("broken <first:int>")
+        static void first(ResultReader sender, int first) {
+        }
+        
+        @Command("broken <second:int>")
+        static void second(ResultReader sender, int second) {
+        }
+    }
+    
+    static class Instance {
+        @Command("broken")
+        void run(ResultReader sender) {
+        }
+    }
+    
+    static class Sender {
+        @Command("broken")
+        static void run(String sender) {
+        }
+    }
+    
+}
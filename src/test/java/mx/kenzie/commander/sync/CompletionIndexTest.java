@@ -0,0 +1,51 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.ArgLiteralPlural;
+import mx.kenzie.commander.arg.Argument;
+import org.junit.Test;
+
+import java.util.List;
+
+public class CompletionIndexTest {
+    
+    final Commander<ResultReader> commander = new Commander<>() {
+        @Override
+        protected CommandImpl create() {
+            final CommandImpl command = command("warp");
+            for (int i = 0; i < 500; i++) command.arg(sender -> {}, "spot" + i);
+            return command
+                .arg(sender -> {}, "set", "home")
+                .arg(sender -> {}, "Set", "spawn")
+                .arg("toggle", arg((sender, inputs) -> {}, Argument.BOOLEAN))
+                .arg(sender -> {}, new String[]{"delete", "del"}, arg((sender, inputs) -> {}, new ArgLiteralPlural(new String[]{"now", "later"})));
+        }
+    };
+    
+    @Test
+    public void prefix() {
+        assert commander.getNextCompletions("spot49").equals(List.of("spot490", "spot491", "spot492", "spot493", "spot494", "spot495", "spot496", "spot497", "spot498", "spot499"));
+        assert commander.getNextCompletions("se").equals(List.of("set"));
+        assert commander.getNextCompletions("S").equals(List.of("Set"));
+        assert commander.getNextCompletions("d").equals(List.of("delete"));
+        assert commander.getNextCompletions("set").isEmpty(); // already complete
+    }
+    
+    @Test
+    public void path() {
+        assert commander.getNextCompletions("set", "").equals(List.of("home", "spawn"));
+        assert commander.getNextCompletions("SET", "h").equals(List.of("home"));
+        assert commander.getNextCompletions("toggle", "").equals(List.of("true", "false"));
+        assert commander.getNextCompletions("toggle", "true").isEmpty();
+        assert commander.getNextCompletions("del", "").equals(List.of("now"));
+        assert commander.getNextCompletions("nothing", "").isEmpty();
+    }
+    
+    @Test
+    public void distinct() {
+        final List<String> all = commander.getNextCompletions();
+        assert all.size() == 500 + 4;
+        assert all.stream().distinct().count() == all.size();
+    }
+    
+}
@@ -0,0 +1,131 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.ArgString;
+import mx.kenzie.commander.arg.Argument;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CompletionProviderTest {
+    
+    @Test
+    public void fixed() {
+        final Provided commander = new Provided();
+        final int before = commander.worlds.calls.get();
+        for (int i = 0; i < 100; i++) assert commander.getNextCompletions("world", "n").equals(List.of("nether"));
+        assert commander.worlds.calls.get() == before;
+    }
+    
+    @Test
+    public void lifetime() throws Exception {
+        final Provided commander = new Provided();
+        commander.players.names = List.of("alice", "bob");
+        assert commander.getNextCompletions("tell", "").equals(List.of("alice", "bob"));
+        commander.players.names = List.of("carol");
+        assert commander.getNextCompletions("tell", "").equals(List.of("alice", "bob")); // still fresh
+        assert commander.players.calls.get() == 1;
+        Thread.sleep(400);
+        assert commander.getNextCompletions("tell", "").equals(List.of("alice", "bob")); // stale, refreshing
+        final long deadline = System.currentTimeMillis() + 2000;
+        while (!commander.getNextCompletions("tell", "").equals(List.of("carol")))
+            assert System.currentTimeMillis() < deadline;
+        assert commander.players.calls.get() == 2;
+    }
+    
+    @Test
+    public void slowRefresh() throws Exception {
+        final Provided commander = new Provided();
+        commander.players.names = List.of("alice");
+        assert commander.getNextCompletions("tell", "").equals(List.of("alice"));
+        assert commander.getNextCompletions("mail", "").equals(List.of("dave"));
+        Thread.sleep(400);
+        commander.mail.blocked = true;
+        assert commander.getNextCompletions("mail", "").equals(List.of("dave")); // stale, its refresh is stuck
+        commander.players.names = List.of("carol");
+        try {
+            final long deadline = System.currentTimeMillis() + 2000;
+            while (!commander.getNextCompletions("tell", "").equals(List.of("carol")))
+                assert System.currentTimeMillis() < deadline;
+        } finally {
+            commander.mail.release.countDown();
+        }
+    }
+    
+    @Test
+    public void builtIn() {
+        assert Argument.BOOLEAN.getCompletions() == Argument.BOOLEAN.getCompletions();
+        assert Argument.BOOLEAN.hasStaticCompletions();
+    }
+    
+    static class Provider extends ArgString {
+        final AtomicInteger calls = new AtomicInteger();
+        final boolean fixed;
+        volatile List<String> names;
+        
+        Provider(boolean fixed, List<String> names) {
+            this.fixed = fixed;
+            this.names = names;
+        }
+        
+        @Override
+        public @Nullable List<String> getCompletions() {
+            calls.incrementAndGet();
+            return names;
+        }
+        
+        @Override
+        public boolean matches(String string) {
+            return false;
+        }
+        
+        @Override
+        public boolean hasStaticCompletions() {
+            return fixed;
+        }
+        
+        @Override
+        public long getCompletionLifetime() {
+            return fixed ? 0 : 300;
+        }
+    }
+    
+    static class Blocking extends Provider {
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean blocked;
+        
+        Blocking() {
+            super(false, List.of("dave"));
+        }
+        
+        @Override
+        public @Nullable List<String> getCompletions() {
+            if (blocked) try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getCompletions();
+        }
+    }
+    
+    static class Provided extends Commander<ResultReader> {
+        Provider worlds, players;
+        Blocking mail;
+        
+        @Override
+        protected CommandImpl create() {
+            worlds = new Provider(true, List.of("overworld", "nether", "end"));
+            players = new Provider(false, List.of());
+            mail = new Blocking();
+            return command("test")
+                .arg("world", arg((sender, inputs) -> {}, worlds))
+                .arg("tell", arg((sender, inputs) -> {}, players))
+                .arg("mail", arg((sender, inputs) -> {}, mail));
+        }
+    }
+    
+}
@@ -0,0 +1,70 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.CompletionSession;
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.ArgInteger;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CompletionSessionTest {
+    
+    final AtomicInteger checks = new AtomicInteger();
+    final Commander<ResultReader> commander = new Commander<>() {
+        @Override
+        protected CommandImpl create() {
+            return command("warp")
+                .arg(sender -> {}, "set", "home")
+                .arg(sender -> {}, "set", "home_base")
+                .arg(sender -> {}, "set", "hub")
+                .arg(sender -> {}, "delete", "home")
+                .arg("slot", arg((sender, inputs) -> {}, new ArgInteger() {
+                    @Override
+                    public boolean matches(String string) {
+                        checks.incrementAndGet();
+                        return super.matches(string);
+                    }
+                }, new ArgInteger()));
+        }
+    };
+    
+    @Test
+    public void typing() {
+        final CompletionSession session = commander.openCompletionSession();
+        final String line = "set home_b";
+        for (int i = 0; i <= line.length(); i++) {
+            final String typed = line.substring(0, i);
+            assert session.complete(typed).equals(commander.getNextCompletions(split(typed))) : typed;
+        }
+        assert session.complete("set h").equals(commander.getNextCompletions("set", "h")); // backspace
+        assert session.complete("delete h").equals(commander.getNextCompletions("delete", "h")); // new first word
+        assert session.complete("nothing h").isEmpty();
+    }
+    
+    @Test
+    public void incremental() {
+        final CompletionSession session = commander.openCompletionSession();
+        session.complete("slot 12 ");
+        final int after = checks.get();
+        session.complete("slot 12 3");
+        session.complete("slot 12 34");
+        session.complete("slot 12 345");
+        assert checks.get() == after; // "12" is not matched again
+        session.complete("slot 13 ");
+        assert checks.get() > after;
+    }
+    
+    @Test
+    public void recompile() {
+        final CompletionSession session = commander.openCompletionSession();
+        assert session.complete("set h").size() == 3;
+        commander.recompile();
+        assert session.complete("set hu").equals(List.of("hub"));
+    }
+    
+    private static String[] split(String line) {
+        return line.split(" ", -1);
+    }
+    
+}
@@ -0,0 +1,56 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.Argument;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class HelpTest {
+    
+    @Test
+    public void optionalArguments() {
+        final Commander<ResultReader> commander = new HelpCommander();
+        final List<String> patterns = (List<String>) commander.getPatterns();
+        assert patterns.equals(List.of("give [<int> <string>]", "list", "set <string>", "set <string> <int>")) : patterns;
+        final Map<String, String> descriptions = commander.getPatternDescriptions();
+        assert descriptions.size() == 4;
+        assert descriptions.get("list").equals("Lists everything.");
+        assert descriptions.get("give [<int> <string>]") == null;
+    }
+    
+    @Test
+    public void pages() {
+        final Commander<ResultReader> commander = new HelpCommander();
+        assert commander.getHelpPages(3) == 2;
+        assert commander.getHelpPages(4) == 1;
+        assert commander.getHelp(0, 3).equals(List.of("help give [<int> <string>]", "help list - Lists everything.", "help set <string>"));
+        assert commander.getHelp(1, 3).equals(List.of("help set <string> <int>"));
+        assert commander.getHelp(2, 3).isEmpty();
+    }
+    
+    static class HelpCommander extends Commander<ResultReader> {
+        
+        @Override
+        protected CommandImpl create() {
+            return command("help")
+                .arg("give", sender -> {})
+                .arg("list", desc("Lists everything."), sender -> {})
+                .arg("give", arg(
+                    (sender, inputs) -> {},
+                    Argument.INTEGER,
+                    Argument.STRING
+                ))
+                .arg("set", arg(
+                    (sender, inputs) -> {},
+                    Argument.STRING
+                ), arg(
+                    (sender, inputs) -> {},
+                    Argument.INTEGER
+                ));
+        }
+        
+    }
+    
+}
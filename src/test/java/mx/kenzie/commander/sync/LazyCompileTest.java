@@ -0,0 +1,58 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.CommandRegistry;
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.Argument;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LazyCompileTest {
+    
+    @Test
+    public void deferredUntilUse() {
+        final AtomicInteger compiles = new AtomicInteger();
+        final Commander<ResultReader> commander = new Commander<>("lazy", "lz") {
+            @Override
+            protected CommandImpl create() {
+                compiles.incrementAndGet();
+                return command("lazy", "lz")
+                    .arg("echo", arg((sender, inputs) -> sender.send("echo " + inputs[0]), Argument.STRING))
+                    .defaultAction(sender -> sender.send("empty"));
+            }
+        };
+        assert compiles.get() == 0;
+        assert commander.getCommand().equals("lazy");
+        assert commander.getAliases().contains("lz");
+        final CommandRegistry<ResultReader> registry = new CommandRegistry<>();
+        registry.register(commander);
+        assert registry.get("lz") == commander;
+        assert compiles.get() == 0;
+        final ResultReader reader = new ResultReader();
+        registry.execute(reader, "lz echo hello");
+        assert reader.result.equals("echo hello");
+        assert compiles.get() == 1;
+        commander.execute(reader, "lazy");
+        assert reader.result.equals("empty");
+        assert commander.getPatterns().size() == 1;
+        assert compiles.get() == 1;
+    }
+    
+    @Test
+    public void completionCompiles() {
+        final AtomicInteger compiles = new AtomicInteger();
+        final Commander<ResultReader> commander = new Commander<>("lazy") {
+            @Override
+            protected CommandImpl create() {
+                compiles.incrementAndGet();
+                return command("lazy")
+                    .arg(sender -> sender.send("first"), "first")
+                    .arg(sender -> sender.send("second"), "second");
+            }
+        };
+        assert compiles.get() == 0;
+        assert commander.getNextCompletions("f").contains("first");
+        assert compiles.get() == 1;
+    }
+    
+}
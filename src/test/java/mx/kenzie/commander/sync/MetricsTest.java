@@ -0,0 +1,110 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.CommandMetrics;
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.LatencyHistogram;
+import mx.kenzie.commander.RouteMetrics;
+import mx.kenzie.commander.arg.Argument;
+import org.junit.Test;
+
+import java.util.List;
+
+public class MetricsTest {
+    
+    @Test
+    public void countsRoutes() {
+        final Commander<ResultReader> commander = create(true);
+        final ResultReader reader = new ResultReader();
+        for (int i = 0; i < 3; i++) commander.execute(reader, "metric", "hello");
+        commander.execute(reader, "metric", "add", "4");
+        commander.execute(reader, "metric", "fail");
+        commander.execute(reader, "metric", "secret");
+        commander.execute(reader, "metric", "nothing", "here");
+        final CommandMetrics metrics = commander.getMetrics();
+        assert metrics != null;
+        assert metrics.getCommand().equals("metric");
+        final RouteMetrics.Snapshot hello = find(metrics, "hello");
+        assert hello.invocations() == 3;
+        assert hello.failures() == 0;
+        assert hello.parse().count() == 3;
+        assert hello.predicate().count() == 3;
+        assert hello.action().count() == 3;
+        assert find(metrics, "add <int>").invocations() == 1;
+        assert find(metrics, "fail").failures() == 1;
+        final RouteMetrics.Snapshot secret = find(metrics, "secret");
+        assert secret.rejections() == 1;
+        assert secret.invocations() == 0;
+        assert secret.action().count() == 0;
+        assert find(metrics, "").invocations() == 1;
+    }
+    
+    @Test
+    public void survivesRecompile() {
+        final Commander<ResultReader> commander = create(true);
+        final ResultReader reader = new ResultReader();
+        commander.execute(reader, "metric", "hello");
+        commander.recompile();
+        commander.execute(reader, "metric", "hello");
+        assert find(commander.getMetrics(), "hello").invocations() == 2;
+    }
+    
+    @Test
+    public void disabled() {
+        final Commander<ResultReader> commander = create(false);
+        final ResultReader reader = new ResultReader();
+        commander.execute(reader, "metric", "hello");
+        assert reader.result.equals("hello");
+        assert commander.getMetrics() == null;
+    }
+    
+    @Test
+    public void prometheus() {
+        final Commander<ResultReader> commander = create(true);
+        commander.execute(new ResultReader(), "metric", "add", "4");
+        final String text = commander.getMetrics().toPrometheus();
+        assert text.contains("# TYPE commander_route_invocations_total counter\n");
+        assert text.contains("commander_route_invocations_total{command=\"metric\",route=\"add <int>\"} 1\n");
+        assert text.contains("# TYPE commander_route_phase_seconds histogram\n");
+        assert text.contains("commander_route_phase_seconds_count{command=\"metric\",route=\"add <int>\",phase=\"action\"} 1\n");
+        assert text.contains("commander_route_phase_seconds_bucket{command=\"metric\",route=\"add <int>\",phase=\"parse\",le=\"+Inf\"} 1\n");
+        assert text.endsWith("\n");
+    }
+    
+    @Test
+    public void histogramPercentiles() {
+        final Commander<ResultReader> commander = create(true);
+        commander.execute(new ResultReader(), "metric", "hello");
+        final LatencyHistogram.Snapshot parse = find(commander.getMetrics(), "hello").parse();
+        assert parse.count() == 1;
+        assert parse.percentile(0.5) >= parse.sum();
+        assert parse.percentile(0.5) <= parse.sum() + parse.sum() / 8 + 1;
+        assert parse.countBelow(Long.MAX_VALUE) == 1;
+        assert parse.countBelow(1) == 0;
+    }
+    
+    private static RouteMetrics.Snapshot find(CommandMetrics metrics, String route) {
+        final List<RouteMetrics.Snapshot> snapshots = metrics.snapshot();
+        for (RouteMetrics.Snapshot snapshot : snapshots) if (snapshot.route().equals(route)) return snapshot;
+        throw new AssertionError("No route " + route + " in " + snapshots);
+    }
+    
+    private static Commander<ResultReader> create(boolean record) {
+        return new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                final CommandImpl command = command("metric")
+                    .setPredicate(context -> !context.arguments()[0].equals("secret"))
+                    .setFailureBehaviour(context -> context.sender().send("refused"))
+                    .errorHandler((context, ex) -> context.sender().send("failed"))
+                    .arg(sender -> sender.send("hello"), "hello")
+                    .arg(sender -> sender.send("secret"), "secret")
+                    .arg(sender -> {
+                        throw new IllegalStateException();
+                    }, "fail")
+                    .arg("add", arg((sender, inputs) -> sender.send("add " + inputs[0]), Argument.INTEGER));
+                return record ? command.recordMetrics() : command;
+            }
+        };
+    }
+    
+}
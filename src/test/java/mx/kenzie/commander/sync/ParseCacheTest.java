@@ -0,0 +1,120 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.ArgString;
+import mx.kenzie.commander.arg.Argument;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class ParseCacheTest {
+    
+    @Test
+    public void hits() {
+        final Cached commander = new Cached();
+        final ResultReader reader = new ResultReader();
+        commander.execute(reader, "home", "main");
+        commander.execute(reader, "home", "main");
+        commander.execute(reader, "home", "main");
+        assert reader.result.equals("home main");
+        assert commander.getParseCacheMisses() == 1;
+        assert commander.getParseCacheHits() == 2;
+        commander.execute(reader, "home", "spawn", "3");
+        commander.execute(reader, "home", "spawn", "3");
+        assert reader.result.equals("spawn 3");
+        assert commander.getParseCacheHits() == 3;
+    }
+    
+    @Test
+    public void valuesAreCopied() {
+        final Cached commander = new Cached();
+        final ResultReader reader = new ResultReader();
+        commander.execute(reader, "home", "spawn", "3");
+        commander.execute(reader, "home", "spawn", "3");
+        assert reader.result.equals("spawn 3");
+    }
+    
+    @Test
+    public void impure() {
+        final Cached commander = new Cached();
+        final ResultReader reader = new ResultReader();
+        commander.execute(reader, "home", "visit", "alice");
+        assert reader.result.equals("default");
+        commander.online.add("alice");
+        commander.execute(reader, "home", "visit", "alice");
+        assert reader.result.equals("visit alice");
+        assert commander.getParseCacheHits() == 0;
+    }
+    
+    @Test
+    public void subclassesAreImpure() {
+        final Cached commander = new Cached();
+        final ResultReader reader = new ResultReader();
+        commander.execute(reader, "home", "greet", "alice");
+        commander.execute(reader, "home", "greet", "alice");
+        assert reader.result.equals("greet alice");
+        assert commander.getParseCacheHits() == 0;
+    }
+    
+    @Test
+    public void usedEntriesStay() {
+        final Cached commander = new Cached();
+        final ResultReader reader = new ResultReader();
+        for (int i = 0; i < 100; i++) {
+            commander.execute(reader, "home", "main");
+            commander.execute(reader, "home", "spawn", i + "");
+        }
+        assert commander.getParseCacheHits() == 99;
+        assert commander.getParseCacheMisses() == 101;
+    }
+    
+    @Test
+    public void recompile() {
+        final Cached commander = new Cached();
+        final ResultReader reader = new ResultReader();
+        commander.execute(reader, "home", "main");
+        commander.recompile();
+        commander.execute(reader, "home", "main");
+        assert commander.getParseCacheHits() == 0;
+        assert commander.getParseCacheMisses() == 2;
+    }
+    
+    static class Cached extends Commander<ResultReader> {
+        final Set<String> online = new HashSet<>();
+        
+        @Override
+        protected CommandImpl create() {
+            return command("home")
+                .cacheParses(16)
+                .arg("main", sender -> sender.send("home main"))
+                .arg("spawn", arg((sender, inputs) -> {
+                    sender.send("spawn " + inputs[0]);
+                    inputs[0] = -1; // must not leak into the next hit
+                }, Argument.INTEGER))
+                .arg("greet", arg((sender, inputs) -> sender.send("greet " + inputs[0]), new ArgString() {
+                    @Override
+                    public boolean matches(String source, int start, int end) {
+                        return true;
+                    }
+                }))
+                .arg("visit", arg((sender, inputs) -> sender.send("visit " + inputs[0]), new ArgString() {
+                    @Override
+                    public boolean matches(String source, int start, int end) {
+                        return online.contains(source.substring(start, end));
+                    }
+                    
+                    @Override
+                    public boolean isPure() {
+                        return false;
+                    }
+                }));
+        }
+        
+        @Override
+        public CommandSingleAction<ResultReader> getDefault() {
+            return sender -> sender.send("default");
+        }
+    }
+    
+}
@@ -0,0 +1,189 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.CommandContext;
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.ArgInteger;
+import mx.kenzie.commander.arg.ArgString;
+import mx.kenzie.commander.arg.Argument;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+public class RouteResolverTest {
+    
+    final WideCommander commander = new WideCommander();
+    final ResultReader reader = new ResultReader();
+    
+    @Test
+    public void wide() {
+        commander.execute(reader, "wide", "group3", "item7");
+        assert reader.result.equals("3-7");
+        commander.execute(reader, "wide", "group9", "item0");
+        assert reader.result.equals("9-0");
+        commander.execute(reader, "wide", "group10", "item0");
+        assert reader.result.equals("default");
+    }
+    
+    @Test
+    public void caseFolded() {
+        commander.execute(reader, "wide", "GROUP2", "Item5");
+        assert reader.result.equals("2-5");
+        commander.execute(reader, "wide", "Warp", "home");
+        assert reader.result.equals("warp home");
+        commander.execute(reader, "wide", "W", "spawn");
+        assert reader.result.equals("warp spawn");
+    }
+    
+    @Test
+    public void trailing() {
+        commander.execute(reader, "wide", "group1", "item1", "extra");
+        assert reader.result.equals("1-1");
+        commander.execute(reader, "wide", "warp", "home", "now");
+        assert reader.result.equals("warp");
+    }
+    
+    @Test
+    public void tokenised() {
+        final CommandContext<ResultReader> context = CommandContext.build(reader, "wide  group3 item7 ");
+        assert context.command().equals("wide");
+        assert context.arguments().length == 2;
+        commander.execute(context);
+        assert reader.result.equals("3-7");
+        commander.execute(reader, "wide", "warp", "\"my", "home\"");
+        assert reader.result.equals("warp my home");
+    }
+    
+    @Test
+    public void typed() {
+        commander.execute(reader, "wide", "group4", "12");
+        assert reader.result.equals("4#12");
+        commander.execute(reader, "wide", "group4", "twelve");
+        assert reader.result.equals("default");
+    }
+    
+    @Test
+    public void sharedLiterals() {
+        final Commander<ResultReader> shared = new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                return command("shared")
+                    .arg(sender -> sender.send("home"), "Home")
+                    .arg(sender -> sender.send("home set"), "home", "set")
+                    .arg(sender -> sender.send("first"), "HOME")
+                    .arg(sender -> sender.send("warp"), new String[]{"warp", "w"}, arg("list", sender -> sender.send("warp list")))
+                    .arg(sender -> sender.send("warp again"), new String[]{"WARP", "W"}, arg("here", sender -> sender.send("warp here")));
+            }
+        };
+        shared.execute(reader, "shared", "home");
+        assert reader.result.equals("home");
+        shared.execute(reader, "shared", "HoMe", "set");
+        assert reader.result.equals("home set");
+        shared.execute(reader, "shared", "w", "list");
+        assert reader.result.equals("warp list");
+        shared.execute(reader, "shared", "warp", "here");
+        assert reader.result.equals("warp here");
+        shared.execute(reader, "shared", "W");
+        assert reader.result.equals("warp");
+    }
+    
+    @Test
+    public void customPattern() {
+        final Commander<ResultReader> custom = new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                return command("custom")
+                    .arg("code", arg((sender, inputs) -> sender.send("code " + inputs[0]), new CodeArgument()))
+                    .arg("signed", arg((sender, inputs) -> sender.send("signed " + inputs[0]), new SignedArgument()));
+            }
+        };
+        custom.execute(reader, "custom", "code", "AB12");
+        assert reader.result.equals("code AB12");
+        reader.result = null;
+        custom.execute(reader, "custom", "code", "hello");
+        assert reader.result == null;
+        custom.execute(reader, "custom", "signed", "+7");
+        assert reader.result.equals("signed 7");
+    }
+    
+    @Test
+    public void singlePass() {
+        final CountingCommander counting = new CountingCommander();
+        counting.execute(reader, "count", "box", "7");
+        assert reader.result.equals("7");
+        assert counting.argument.matched == 1;
+        assert counting.argument.serialised == 1;
+    }
+    
+    static class CountingArgument extends ArgInteger {
+        int matched, serialised;
+        
+        @Override
+        public boolean matches(String source, int start, int end) {
+            matched++;
+            return super.matches(source, start, end);
+        }
+        
+        @Override
+        public @NotNull Integer serialise(String source, int start, int end) {
+            serialised++;
+            return super.serialise(source, start, end);
+        }
+    }
+    
+    static class CodeArgument extends ArgString {
+        private static final Pattern PATTERN = Pattern.compile("^[A-Z]{2}[0-9]{2}$");
+        
+        @Override
+        public Pattern getPattern() {
+            return PATTERN;
+        }
+    }
+    
+    static class SignedArgument extends ArgInteger {
+        private static final Pattern PATTERN = Pattern.compile("^[+-]?[0-9]{1,9}$");
+        
+        @Override
+        public Pattern getPattern() {
+            return PATTERN;
+        }
+    }
+    
+    static class CountingCommander extends Commander<ResultReader> {
+        CountingArgument argument;
+        
+        @Override
+        protected CommandImpl create() {
+            argument = new CountingArgument();
+            return command("count")
+                .arg("box", arg((sender, inputs) -> sender.send(inputs[0] + ""), argument));
+        }
+    }
+    
+    static class WideCommander extends Commander<ResultReader> {
+        @Override
+        protected CommandImpl create() {
+            final CommandImpl command = command("wide");
+            for (int group = 0; group < 10; group++) {
+                final int g = group;
+                for (int item = 0; item < 10; item++) {
+                    final int i = item;
+                    command.arg(sender -> sender.send(g + "-" + i), "group" + group, "item" + item);
+                }
+                command.arg("group" + group,
+                    arg((sender, inputs) -> sender.send(g + "#" + inputs[0]), Argument.INTEGER)
+                );
+            }
+            return command
+                .arg(sender -> sender.send("warp"), new String[]{"warp", "w"},
+                    arg((sender, inputs) -> sender.send("warp " + inputs[0]), Argument.STRING)
+                );
+        }
+        
+        @Override
+        public CommandSingleAction<ResultReader> getDefault() {
+            return sender -> sender.send("default");
+        }
+    }
+    
+}
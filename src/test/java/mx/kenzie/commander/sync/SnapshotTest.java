@@ -0,0 +1,148 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.CommandContext;
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.Argument;
+import mx.kenzie.commander.exception.IllegalCommandException;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SnapshotTest {
+    
+    @Test
+    public void recompile() {
+        final SwappingCommander commander = new SwappingCommander();
+        final ResultReader reader = new ResultReader();
+        commander.execute(reader, "swap", "old");
+        assert reader.result.equals("old");
+        commander.label = "new";
+        commander.recompile();
+        commander.execute(reader, "swap", "old");
+        assert reader.result.equals("default");
+        commander.execute(reader, "swap", "new");
+        assert reader.result.equals("new");
+        assert commander.getPatterns().contains("new");
+    }
+    
+    @Test
+    public void registrationOutsideCompile() {
+        final SwappingCommander commander = new SwappingCommander();
+        try {
+            commander.late();
+            assert false;
+        } catch (IllegalCommandException ex) {
+            assert commander.getPatterns().size() == 2;
+        }
+    }
+    
+    @Test
+    public void concurrentSwap() throws Exception {
+        final SwappingCommander commander = new SwappingCommander();
+        final ExecutorService service = Executors.newFixedThreadPool(4);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            final Future<?> swapper = service.submit(() -> {
+                for (int i = 0; running.get(); i++) {
+                    commander.label = "label" + (i % 4);
+                    commander.recompile();
+                }
+            });
+            final Future<?>[] dispatchers = new Future<?>[3];
+            for (int d = 0; d < dispatchers.length; d++) {
+                final String word = "word" + d;
+                dispatchers[d] = service.submit(() -> {
+                    final ResultReader reader = new ResultReader();
+                    for (int i = 0; i < 20_000; i++) {
+                        commander.execute(reader, "swap", "echo", word + i);
+                        assert reader.result.equals(word + i) : reader.result;
+                    }
+                });
+            }
+            for (Future<?> dispatcher : dispatchers) dispatcher.get();
+            running.set(false);
+            swapper.get();
+        } finally {
+            service.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void handlers() {
+        final SwappingCommander commander = new SwappingCommander();
+        final ResultReader reader = new ResultReader();
+        assert commander.getDescription() == null;
+        commander.locked = true;
+        commander.recompile();
+        assert commander.getDescription().equals("locked");
+        commander.execute(reader, "swap", "old");
+        assert reader.result.equals("refused");
+        commander.locked = false;
+        commander.recompile();
+        commander.execute(reader, "swap", "old");
+        assert reader.result.equals("old");
+    }
+    
+    @Test
+    public void droppedPool() throws Exception {
+        final SwappingCommander commander = new SwappingCommander();
+        commander.async = true;
+        commander.recompile();
+        final ExecutorService pool = commander.pool();
+        assert pool != null;
+        final ResultReader reader = new ResultReader();
+        commander.executeAsync(reader, "swap", "old").get(10, TimeUnit.SECONDS);
+        assert reader.result.equals("old");
+        commander.async = false;
+        commander.recompile();
+        assert commander.pool() == null;
+        assert pool.isShutdown();
+        commander.execute(reader, "swap", "echo", "here");
+        assert reader.result.equals("here");
+    }
+    
+    @Test
+    public void contextInput() {
+        final CommandContext<ResultReader> context = new CommandContext<>(new ResultReader(), "swap", "echo", "hello");
+        assert context.input().equals("echo hello");
+    }
+    
+    static class SwappingCommander extends Commander<ResultReader> {
+        volatile String label; // read during the super constructor, before initialisers run
+        volatile boolean locked, async;
+        
+        @Override
+        protected CommandImpl create() {
+            final String label = this.label == null ? "old" : this.label;
+            final CommandImpl command = command("swap");
+            if (locked) command.setDescription("locked")
+                .setPredicate(context -> false)
+                .setFailureBehaviour(context -> context.sender().send("refused"));
+            else command.setDescription(null)
+                .setPredicate(context -> true)
+                .setFailureBehaviour(context -> context.sender().send("default"));
+            if (async) command.allowAsyncExecution();
+            return command
+                .arg(sender -> sender.send(label), label)
+                .arg("echo", arg((sender, inputs) -> sender.send(getInput().substring(5)), Argument.STRING));
+        }
+        
+        ExecutorService pool() {
+            return pool;
+        }
+        
+        void late() {
+            command("swap").arg(sender -> sender.send("late"), "late");
+        }
+        
+        @Override
+        public CommandSingleAction<ResultReader> getDefault() {
+            return sender -> sender.send("default");
+        }
+    }
+    
+}
@@ -0,0 +1,112 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.Argument;
+import org.junit.Test;
+
+import java.util.List;
+
+public class SpecialisedDispatchTest {
+    
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.SHOW_HIDDEN_FRAMES);
+    
+    final ResultReader plain = new ResultReader(), specialised = new ResultReader();
+    
+    @Test
+    public void sameAsShared() {
+        final Commander<ResultReader> shared = new ExampleCommander(), own = new ExampleCommander() {
+            @Override
+            protected CommandImpl create() {
+                return super.create().specialise();
+            }
+        };
+        for (String input : List.of("", "foo", "BAR", "blob", "true", "blob false", "box true", "box boo 5", "box boo five",
+            "num 1", "num 1 5", "num one", "conflict blob", "conflict 5", "nonconflict 5", "nonconflict blob", "takeall",
+            "takeall hello there!", "takeafter 0.5 hello there!", "takeafter x y", "abc", "missing", "foo trailing words")) {
+            this.compare(shared, own, "test", input.isEmpty() ? new String[0] : input.split(" "));
+        }
+        final Commander<ResultReader> typed = new TypedActionTest.TypedCommander(), typedOwn = new TypedActionTest.TypedCommander() {
+            @Override
+            protected CommandImpl create() {
+                return super.create().specialise();
+            }
+        };
+        for (String input : List.of("give 250", "give lots", "fine -9000000000", "rate 0.25", "frozen yes", "pay 3 12.5",
+            "tp 1 -64 20.5", "range 1 10", "send alice 40", "give 2147483648")) {
+            this.compare(typed, typedOwn, "eco", input.split(" "));
+        }
+    }
+    
+    @Test
+    public void literalTable() {
+        final Commander<ResultReader> shared = literals(false), own = literals(true);
+        for (String input : List.of("item0", "ITEM17", "Item39", "item40", "a~", "b_", "a_", "item3 extra", "item3 5")) {
+            this.compare(shared, own, "lit", input.split(" "));
+        }
+        own.execute(specialised, "lit", "b_");
+        assert specialised.result.equals("b_");
+        own.execute(specialised, "lit", "item3", "5");
+        assert specialised.result.equals("item3 5");
+    }
+    
+    @Test
+    public void beyondLimit() {
+        final Commander<ResultReader> own = new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                final CommandImpl command = command("big").specialise();
+                for (int i = 0; i < 6000; i++) {
+                    final String name = "item" + i;
+                    command.arg(name, sender -> sender.send(name));
+                }
+                return command;
+            }
+        };
+        for (String name : List.of("item0", "item4095", "item4096", "item5999")) {
+            own.execute(specialised, "big", name);
+            assert specialised.result.equals(name) : specialised.result;
+        }
+        specialised.result = null;
+        own.execute(specialised, "big", "item6000");
+        assert specialised.result == null;
+    }
+    
+    @Test
+    public void ownCode() {
+        final Commander<ResultReader> shared = literals(false), own = literals(true);
+        shared.execute(plain, "lit", "where");
+        own.execute(specialised, "lit", "where");
+        assert plain.result.equals("shared") : plain.result;
+        assert specialised.result.equals("specialised") : specialised.result;
+    }
+    
+    private void compare(Commander<ResultReader> shared, Commander<ResultReader> own, String label, String... args) {
+        plain.result = specialised.result = null;
+        final boolean ran = shared.execute(plain, label, args);
+        assert ran == own.execute(specialised, label, args) : String.join(" ", args);
+        assert String.valueOf(plain.result).equals(String.valueOf(specialised.result)) : String.join(" ", args) + ": " + plain.result + " / " + specialised.result;
+    }
+    
+    /**
+     * Enough literals to be switched on by hash, two of which share a hash, and routes taking inputs after them.
+     */
+    private static Commander<ResultReader> literals(boolean specialise) {
+        return new Commander<>() {
+            @Override
+            protected CommandImpl create() {
+                final CommandImpl command = command("lit");
+                if (specialise) command.specialise();
+                for (int i = 0; i < 40; i++) {
+                    final String name = "item" + i;
+                    command.arg(name, sender -> sender.send(name));
+                    command.arg(name, arg((sender, value) -> sender.send(name + " " + value), Argument.INT));
+                }
+                command.arg("a~", sender -> sender.send("a~"));
+                command.arg("b_", sender -> sender.send("b_"));
+                command.arg("where", sender -> sender.send(WALKER.walk(frames -> frames.anyMatch(frame -> frame.getClassName().startsWith("mx.kenzie.commander.SpecialisedRoutes/"))) ? "specialised" : "shared"));
+                return command;
+            }
+        };
+    }
+    
+}
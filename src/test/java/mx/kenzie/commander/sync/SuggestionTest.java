@@ -0,0 +1,50 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.ArgLiteralPlural;
+import mx.kenzie.commander.arg.Argument;
+import org.junit.Test;
+
+import java.util.List;
+
+public class SuggestionTest {
+    
+    final ResultReader reader = new ResultReader();
+    final Commander<ResultReader> commander = new Commander<>() {
+        @Override
+        protected CommandImpl create() {
+            final CommandImpl command = command("warp")
+                .defaultAction(sender -> sender.send("default"))
+                .unknownAction((sender, suggestions) -> sender.send("did you mean " + suggestions))
+                .arg(sender -> sender.send("set home"), "set", "home")
+                .arg(sender -> sender.send("set spawn"), "set", "spawn")
+                .arg((sender, inputs) -> sender.send("delete"), new ArgLiteralPlural(new String[]{"delete", "remove"}))
+                .arg("list", arg((sender, inputs) -> sender.send("list"), Argument.INTEGER));
+            for (int i = 0; i < 1_000; i++) command.arg(sender -> {}, "region" + i);
+            return command;
+        }
+    };
+    
+    @Test
+    public void suggestions() {
+        assert commander.getSuggestions("sett", "home").equals(List.of("set home"));
+        assert commander.getSuggestions("set", "hme").equals(List.of("set home"));
+        assert commander.getSuggestions("set", "spwan").equals(List.of("set spawn"));
+        assert commander.getSuggestions("remvoe").equals(List.of("remove"));
+        assert commander.getSuggestions("Lst", "4").equals(List.of("list 4"));
+        assert commander.getSuggestions("region1000").get(0).equals("region100");
+        assert commander.getSuggestions("set", "home").isEmpty();
+        assert commander.getSuggestions("completely", "different").isEmpty();
+    }
+    
+    @Test
+    public void dispatch() {
+        commander.execute(reader, "warp", "sett", "home");
+        assert reader.result.equals("did you mean [set home]");
+        commander.execute(reader, "warp", "xyzzy");
+        assert reader.result.equals("default");
+        commander.execute(reader, "warp", "set", "home");
+        assert reader.result.equals("set home");
+    }
+    
+}
@@ -0,0 +1,81 @@
+package mx.kenzie.commander.sync;
+
+import mx.kenzie.commander.Commander;
+import mx.kenzie.commander.arg.ArgLiteral;
+import mx.kenzie.commander.arg.ArgString;
+import mx.kenzie.commander.arg.Argument;
+import org.junit.Test;
+
+public class TypedActionTest {
+    
+    final TypedCommander commander = new TypedCommander();
+    final ResultReader reader = new ResultReader();
+    
+    @Test
+    public void single() {
+        commander.execute(reader, "eco", "give", "250");
+        assert reader.result.equals("give 250");
+        commander.execute(reader, "eco", "fine", "-9000000000");
+        assert reader.result.equals("fine -9000000000");
+        commander.execute(reader, "eco", "rate", "0.25");
+        assert reader.result.equals("rate 0.25");
+        commander.execute(reader, "eco", "frozen", "yes");
+        assert reader.result.equals("frozen true");
+    }
+    
+    @Test
+    public void multiple() {
+        commander.execute(reader, "eco", "pay", "3", "12.5");
+        assert reader.result.equals("pay 3 12.5");
+        commander.execute(reader, "eco", "tp", "1", "-64", "20.5");
+        assert reader.result.equals("tp 1.0 -64.0 20.5");
+        commander.execute(reader, "eco", "range", "1", "10");
+        assert reader.result.equals("range 1 10");
+    }
+    
+    @Test
+    public void rejected() {
+        commander.execute(reader, "eco", "give", "lots");
+        assert reader.result.equals("default");
+        commander.execute(reader, "eco", "give", "2147483648");
+        assert reader.result.equals("default");
+    }
+    
+    @Test
+    public void inputs() {
+        commander.execute(reader, "eco", "send", "alice", "40");
+        assert reader.result.equals("send alice 40");
+        final Commander.CommandInputAction<ResultReader> action = (sender, inputs) -> sender.send(inputs.size() + ":" + inputs.getInt(0) + ":" + inputs.getDouble(1));
+        action.accept(reader, new Object[]{4, 0.5});
+        assert reader.result.equals("2:4:0.5");
+    }
+    
+    @Test
+    public void boxedFallback() {
+        final Commander.CommandIntDoubleAction<ResultReader> action = (sender, first, second) -> sender.send(first + ":" + second);
+        action.accept(reader, new Object[]{4, 0.5});
+        assert reader.result.equals("4:0.5");
+    }
+    
+    static class TypedCommander extends Commander<ResultReader> {
+        @Override
+        protected CommandImpl create() {
+            return command("eco")
+                .arg("give", arg((sender, amount) -> sender.send("give " + amount), Argument.INT))
+                .arg("fine", arg((sender, amount) -> sender.send("fine " + amount), Argument.LONG))
+                .arg("rate", arg((sender, rate) -> sender.send("rate " + rate), Argument.DOUBLE))
+                .arg("frozen", arg((sender, frozen) -> sender.send("frozen " + frozen), Argument.BOOL))
+                .arg("pay", arg((sender, target, amount) -> sender.send("pay " + target + " " + amount), Argument.INT, Argument.DOUBLE))
+                .arg("range", arg((sender, from, to) -> sender.send("range " + from + " " + to), Argument.INT, Argument.INT))
+                .arg("tp", arg((sender, x, y, z) -> sender.send("tp " + x + " " + y + " " + z), Argument.DOUBLE, Argument.DOUBLE, Argument.DOUBLE))
+                .route(null, (CommandInputAction<ResultReader>) (sender, inputs) -> sender.send("send " + inputs.get(0) + " " + inputs.getInt(1)),
+                    new ArgLiteral("send"), new ArgString(), Argument.INT);
+        }
+        
+        @Override
+        public CommandSingleAction<ResultReader> getDefault() {
+            return sender -> sender.send("default");
+        }
+    }
+    
+}